@@ -0,0 +1,102 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.robot.Constants.OIConstants;
+import frc.robot.helpers.CustomSwerveInput;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swervelib.SwerveDrive;
+
+/**
+ * Measures {@link CustomSwerveInput#get(ChassisSpeeds)} in every input mode,
+ * configured like the driver stream in {@link frc.robot.RobotContainer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomSwerveInputBenchmark {
+  /** Target used by the AIM and DRIVE_TO_POSE modes, the blue reef center. */
+  private static final Pose2d TARGET = new Pose2d(4.489, 4.026, Rotation2d.kZero);
+
+  /** Input mode to benchmark. */
+  @Param({ "TRANSLATION_ONLY", "ANGULAR_VELOCITY", "HEADING", "AIM", "DRIVE_TO_POSE" })
+  public String mode;
+
+  /** Stream under test. */
+  private CustomSwerveInput input;
+
+  /** Reused output. */
+  private final ChassisSpeeds output = new ChassisSpeeds();
+
+  /** Phase of the synthetic joystick inputs, advanced every invocation. */
+  private double phase = 0.0;
+
+  /** Build the stream for the selected mode. */
+  @Setup
+  public void setup() {
+    SwerveDrive drive = SimulatedDrive.get();
+    input = CustomSwerveInput.of(drive, () -> Math.sin(phase), () -> Math.cos(phase))
+        .withControllerRotationAxis(() -> Math.sin(phase * 0.5))
+        .cubeTranslationControllerAxis(true)
+        .scaleTranslation(0.75)
+        .deadband(OIConstants.DRIVER_DEADBAND)
+        .allianceRelativeControl(true);
+
+    switch (mode) {
+      case "TRANSLATION_ONLY" -> input.translationOnlyWhile(true);
+      case "ANGULAR_VELOCITY" -> input.cubeRotationControllerAxis(true);
+      case "HEADING" -> input
+          .withControllerHeadingAxis(() -> Math.cos(phase * 0.5), () -> Math.sin(phase * 0.5))
+          .headingWhile(true);
+      case "AIM" -> input.aim(TARGET).aimWhile(true);
+      case "DRIVE_TO_POSE" -> input
+          .driveToPose(
+              () -> TARGET,
+              new ProfiledPIDController(5, 0, 0, new TrapezoidProfile.Constraints(4, 4)),
+              new ProfiledPIDController(5, 0, 0, new TrapezoidProfile.Constraints(Math.PI, Math.PI)))
+          .driveToPoseEnabled(true);
+      default -> throw new IllegalArgumentException("Unknown mode " + mode);
+    }
+    input.freeze();
+  }
+
+  /**
+   * Evaluate the stream into the reused output.
+   *
+   * @return the output, so it is not optimized away
+   */
+  @Benchmark
+  public ChassisSpeeds get() {
+    phase += 0.01;
+    return input.get(output);
+  }
+
+  /**
+   * Evaluate the stream through the {@link java.util.function.Supplier} API,
+   * which allocates a new {@link ChassisSpeeds}.
+   *
+   * @return the new output
+   */
+  @Benchmark
+  public ChassisSpeeds getAllocating() {
+    phase += 0.01;
+    return input.get();
+  }
+}
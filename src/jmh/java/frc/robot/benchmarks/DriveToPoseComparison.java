@@ -0,0 +1,214 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.DriveToPoseConstants;
+import frc.robot.helpers.DriveToPoseController;
+
+/**
+ * Drives a simulated holonomic robot to a set of poses, once with the straight
+ * line {@link DriveToPoseController} and once with the per axis
+ * {@link ProfiledPIDController}s {@code CustomSwerveInput.driveToPose} used
+ * before, and prints the time to reach each pose and the overshoot past it.
+ *
+ * <p>
+ * The robot model runs at the loop period: the commanded translation is scaled
+ * down to the top speed like the module desaturation does, and the measured
+ * velocity follows the command one loop late with the acceleration the wheels
+ * can give. Both controllers use the same limits.
+ *
+ * <p>
+ * Run with {@code ./gradlew driveToPoseComparison}.
+ */
+public final class DriveToPoseComparison {
+  /** A move, from a pose at rest to a goal pose. */
+  private record Scenario(
+      String name, double startX, double startY, double startHeading, double goalX, double goalY,
+      double goalHeading) {
+  }
+
+  private static final Scenario[] SCENARIOS = {
+      new Scenario("Diagonal 3 x 3 m", 0.0, 0.0, 0.0, 3.0, 3.0, 0.0),
+      new Scenario("Shallow 4 x 1 m", 0.0, 0.0, 0.0, 4.0, 1.0, 0.0),
+      new Scenario("Diagonal, turn 180", 0.0, 0.0, 0.0, 2.5, 2.0, Math.PI),
+      new Scenario("Short hop, turn 90", 0.0, 0.0, 0.0, 0.5, 0.3, Math.PI / 2),
+      new Scenario("Field run 8 x 2 m", 0.0, 0.0, 0.0, 8.0, -2.0, -Math.PI / 3),
+  };
+
+  /** Loop period in seconds. */
+  private static final double PERIOD = TimedRobot.kDefaultPeriod;
+
+  /** Largest change of the robot speed the wheels give, in m/s^2. */
+  private static final double WHEEL_ACCELERATION = 10.0;
+
+  /** Largest change of the angular velocity the wheels give, in rad/s^2. */
+  private static final double WHEEL_ANGULAR_ACCELERATION = 30.0;
+
+  /** Distance within which the robot counts as at the goal, in meters. */
+  private static final double POSITION_TOLERANCE = 0.02;
+
+  /** Heading error within which the robot counts as at the goal, in radians. */
+  private static final double HEADING_TOLERANCE = Math.toRadians(2.0);
+
+  /** Simulated time per run, in seconds. */
+  private static final double RUN_SECONDS = 8.0;
+
+  /** Result of one run. */
+  private record Result(double settleSeconds, double overshootMeters, double peakSpeed) {
+  }
+
+  /** Computes the field relative command from the measured state. */
+  private interface Controller {
+    void calculate(double[] state, Scenario scenario, double timestamp, double[] command);
+  }
+
+  private DriveToPoseComparison() {
+  }
+
+  /**
+   * Run every scenario with both controllers and print the results.
+   *
+   * @param args Not used.
+   */
+  public static void main(String... args) {
+    System.out.printf("%-22s | %-26s | %-26s%n", "", "Straight line", "Per axis");
+    System.out.printf("%-22s | %8s %8s %8s | %8s %8s %8s%n",
+        "Scenario", "time s", "over m", "peak m/s", "time s", "over m", "peak m/s");
+    double coupledTotal = 0.0;
+    double perAxisTotal = 0.0;
+    for (Scenario scenario : SCENARIOS) {
+      Result coupled = run(scenario, straightLine());
+      Result perAxis = run(scenario, perAxis(scenario));
+      coupledTotal += coupled.settleSeconds();
+      perAxisTotal += perAxis.settleSeconds();
+      System.out.printf("%-22s | %8.2f %8.3f %8.2f | %8.2f %8.3f %8.2f%n", scenario.name(),
+          coupled.settleSeconds(), coupled.overshootMeters(), coupled.peakSpeed(),
+          perAxis.settleSeconds(), perAxis.overshootMeters(), perAxis.peakSpeed());
+    }
+    System.out.printf("%-22s | %8.2f %17s | %8.2f%n", "Total", coupledTotal, "", perAxisTotal);
+  }
+
+  /**
+   * Create the straight line controller.
+   *
+   * @return The controller.
+   */
+  private static Controller straightLine() {
+    DriveToPoseController controller = new DriveToPoseController(
+        DriveToPoseConstants.MAX_VELOCITY,
+        DriveToPoseConstants.MAX_ACCELERATION,
+        DriveToPoseConstants.MAX_ANGULAR_VELOCITY,
+        DriveToPoseConstants.MAX_ANGULAR_ACCELERATION,
+        DriveToPoseConstants.TRANSLATION_KP,
+        DriveToPoseConstants.ROTATION_KP);
+    return (state, scenario, timestamp, command) -> {
+      controller.calculate(state[0], state[1], state[2], state[3], state[4], state[5],
+          scenario.goalX(), scenario.goalY(), scenario.goalHeading(), timestamp);
+      command[0] = controller.getVx();
+      command[1] = controller.getVy();
+      command[2] = controller.getOmega();
+    };
+  }
+
+  /**
+   * Create per axis controllers with the same limits and gains, starting from
+   * the start pose at rest.
+   *
+   * @param scenario Scenario to start from.
+   * @return The controller.
+   */
+  private static Controller perAxis(Scenario scenario) {
+    TrapezoidProfile.Constraints translation = new TrapezoidProfile.Constraints(
+        DriveToPoseConstants.MAX_VELOCITY, DriveToPoseConstants.MAX_ACCELERATION);
+    ProfiledPIDController x = new ProfiledPIDController(DriveToPoseConstants.TRANSLATION_KP, 0, 0, translation);
+    ProfiledPIDController y = new ProfiledPIDController(DriveToPoseConstants.TRANSLATION_KP, 0, 0, translation);
+    ProfiledPIDController omega = new ProfiledPIDController(DriveToPoseConstants.ROTATION_KP, 0, 0,
+        new TrapezoidProfile.Constraints(
+            DriveToPoseConstants.MAX_ANGULAR_VELOCITY, DriveToPoseConstants.MAX_ANGULAR_ACCELERATION));
+    omega.enableContinuousInput(-Math.PI, Math.PI);
+    x.reset(scenario.startX());
+    y.reset(scenario.startY());
+    omega.reset(scenario.startHeading());
+    return (state, goal, timestamp, command) -> {
+      command[0] = x.calculate(state[0], goal.goalX());
+      command[1] = y.calculate(state[1], goal.goalY());
+      command[2] = omega.calculate(state[2], goal.goalHeading());
+    };
+  }
+
+  /**
+   * Drive the simulated robot to a scenario's goal.
+   *
+   * @param scenario   Move to run.
+   * @param controller Controller under test.
+   * @return The time to reach the goal for good, the overshoot and the peak
+   *         speed.
+   */
+  private static Result run(Scenario scenario, Controller controller) {
+    // x, y, heading, vx, vy, omega
+    double[] state = { scenario.startX(), scenario.startY(), scenario.startHeading(), 0.0, 0.0, 0.0 };
+    double[] command = new double[3];
+    double[] pending = new double[3];
+
+    double lineX = scenario.goalX() - scenario.startX();
+    double lineY = scenario.goalY() - scenario.startY();
+    double length = Math.hypot(lineX, lineY);
+
+    double settle = Double.NaN;
+    double overshoot = 0.0;
+    double peakSpeed = 0.0;
+    for (int cycle = 0; cycle * PERIOD < RUN_SECONDS; cycle++) {
+      double timestamp = cycle * PERIOD;
+
+      // The command of the last loop reaches the wheels now.
+      accelerate(state, pending);
+      controller.calculate(state, scenario, timestamp, command);
+      double speed = Math.hypot(command[0], command[1]);
+      double scale = speed > DriveToPoseConstants.MAX_VELOCITY ? DriveToPoseConstants.MAX_VELOCITY / speed : 1.0;
+      pending[0] = command[0] * scale;
+      pending[1] = command[1] * scale;
+      pending[2] = MathUtil.clamp(command[2], -DriveToPoseConstants.MAX_ANGULAR_VELOCITY,
+          DriveToPoseConstants.MAX_ANGULAR_VELOCITY);
+
+      state[0] += state[3] * PERIOD;
+      state[1] += state[4] * PERIOD;
+      state[2] = MathUtil.angleModulus(state[2] + state[5] * PERIOD);
+
+      peakSpeed = Math.max(peakSpeed, Math.hypot(state[3], state[4]));
+      double along = ((state[0] - scenario.startX()) * lineX + (state[1] - scenario.startY()) * lineY) / length;
+      overshoot = Math.max(overshoot, along - length);
+      boolean atGoal = Math.hypot(scenario.goalX() - state[0], scenario.goalY() - state[1]) < POSITION_TOLERANCE
+          && Math.abs(MathUtil.angleModulus(scenario.goalHeading() - state[2])) < HEADING_TOLERANCE;
+      if (!atGoal) {
+        settle = Double.NaN;
+      } else if (Double.isNaN(settle)) {
+        settle = timestamp + PERIOD;
+      }
+    }
+    return new Result(settle, overshoot, peakSpeed);
+  }
+
+  /**
+   * Move the measured velocities towards a command within the wheel
+   * acceleration.
+   *
+   * @param state   Robot state to update.
+   * @param command Commanded field relative velocities.
+   */
+  private static void accelerate(double[] state, double[] command) {
+    double dx = command[0] - state[3];
+    double dy = command[1] - state[4];
+    double change = Math.hypot(dx, dy);
+    double limit = WHEEL_ACCELERATION * PERIOD;
+    if (change > limit) {
+      dx *= limit / change;
+      dy *= limit / change;
+    }
+    state[3] += dx;
+    state[4] += dy;
+    double angularLimit = WHEEL_ANGULAR_ACCELERATION * PERIOD;
+    state[5] += MathUtil.clamp(command[2] - state[5], -angularLimit, angularLimit);
+  }
+}
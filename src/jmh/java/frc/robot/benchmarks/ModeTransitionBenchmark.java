@@ -0,0 +1,83 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.Constants.OIConstants;
+import frc.robot.helpers.CustomSwerveInput;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swervelib.SwerveDrive;
+
+/**
+ * Measures {@link CustomSwerveInput#get(ChassisSpeeds)} when the input mode
+ * changes on every call, which exercises the mode transition handling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeTransitionBenchmark {
+  /** Stream switching between TRANSLATION_ONLY and HEADING. */
+  private CustomSwerveInput translationHeading;
+
+  /** Stream switching between AIM and ANGULAR_VELOCITY. */
+  private CustomSwerveInput aimAngularVelocity;
+
+  /** Reused output. */
+  private final ChassisSpeeds output = new ChassisSpeeds();
+
+  /** Toggled every invocation to force a transition. */
+  private boolean toggle = false;
+
+  /** Build the streams. */
+  @Setup
+  public void setup() {
+    SwerveDrive drive = SimulatedDrive.get();
+    translationHeading = CustomSwerveInput.of(drive, () -> 0.5, () -> 0.25)
+        .withControllerHeadingAxis(() -> 0.0, () -> 1.0)
+        .deadband(OIConstants.DRIVER_DEADBAND)
+        .translationOnlyWhile(() -> toggle)
+        .headingWhile(true)
+        .freeze();
+    aimAngularVelocity = CustomSwerveInput.of(drive, () -> 0.5, () -> 0.25)
+        .withControllerRotationAxis(() -> 0.3)
+        .deadband(OIConstants.DRIVER_DEADBAND)
+        .aim(new Pose2d(4.489, 4.026, Rotation2d.kZero))
+        .aimWhile(() -> toggle)
+        .freeze();
+  }
+
+  /**
+   * Alternate between TRANSLATION_ONLY and HEADING.
+   *
+   * @return the output, so it is not optimized away
+   */
+  @Benchmark
+  public ChassisSpeeds translationOnlyToHeading() {
+    toggle = !toggle;
+    return translationHeading.get(output);
+  }
+
+  /**
+   * Alternate between AIM and ANGULAR_VELOCITY.
+   *
+   * @return the output, so it is not optimized away
+   */
+  @Benchmark
+  public ChassisSpeeds aimToAngularVelocity() {
+    toggle = !toggle;
+    return aimAngularVelocity.get(output);
+  }
+}
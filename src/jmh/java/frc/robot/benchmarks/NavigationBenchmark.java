@@ -0,0 +1,68 @@
+package frc.robot.benchmarks;
+
+import frc.robot.helpers.GridPlanner;
+import frc.robot.helpers.OccupancyGrid;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a drive-to-pose plan on the navigation thread: A* over the field
+ * {@link OccupancyGrid} and the shortening of the path to its corners. The
+ * routes go around the reef, the worst case, and into a scoring pose inside
+ * the grown reef.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationBenchmark {
+  /** Route planned, as start x, start y, goal x and goal y. */
+  @Param({ "AcrossReef", "StationToReef", "AcrossField" })
+  public String route;
+
+  /** Planner under test. */
+  private GridPlanner planner;
+
+  /** Start and goal of the route. */
+  private double[] endpoints;
+
+  /** Offset of the goal, changed every invocation so no result is reused. */
+  private double offset = 0.0;
+
+  /** Build the grid and the planner. */
+  @Setup
+  public void setup() {
+    planner = new GridPlanner(OccupancyGrid.getInstance());
+    endpoints = switch (route) {
+      // From the driver station wall to behind the blue reef.
+      case "AcrossReef" -> new double[] { 1.5, 4.0, 7.0, 4.0 };
+      // From the blue coral station to the reef face towards it.
+      case "StationToReef" -> new double[] { 1.6, 1.2, 3.9, 3.1 };
+      // From the blue driver station wall to behind the red reef.
+      default -> new double[] { 1.5, 4.0, 14.5, 4.0 };
+    };
+  }
+
+  /**
+   * Plan the route.
+   *
+   * @return the path corners, so they are not optimized away
+   */
+  @Benchmark
+  public double[] plan() {
+    offset = offset > 0.05 ? 0.0 : offset + 0.001;
+    return planner.plan(endpoints[0], endpoints[1], endpoints[2], endpoints[3] + offset);
+  }
+}
@@ -0,0 +1,36 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.subsystems.Swerve;
+import swervelib.SwerveDrive;
+
+/**
+ * Shared simulated {@link SwerveDrive} for the benchmarks. Initializes the HAL
+ * in simulation and builds the {@link Swerve} subsystem from the deploy
+ * directory exactly like the robot does, so no hardware is needed.
+ */
+final class SimulatedDrive {
+  /** Lazily created drive shared by every benchmark in the fork. */
+  private static SwerveDrive drive;
+
+  private SimulatedDrive() {
+  }
+
+  /**
+   * Get the simulated drive, creating it on first use.
+   *
+   * @return the simulated {@link SwerveDrive}
+   */
+  static synchronized SwerveDrive get() {
+    if (drive == null) {
+      if (!HAL.initialize(500, 0)) {
+        throw new IllegalStateException("Failed to initialize the HAL");
+      }
+      DriverStationSim.setEnabled(true);
+      DriverStationSim.notifyNewData();
+      drive = Swerve.getInstance().getSwerveDrive();
+    }
+    return drive;
+  }
+}
@@ -0,0 +1,70 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swervelib.SwerveDrive;
+
+/**
+ * Measures the YAGSL side of the drive loop against the simulated
+ * {@link SwerveDrive}: field oriented driving down to the module setpoints, and
+ * the inverse kinematics on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveDriveBenchmark {
+  /** Drive under test. */
+  private SwerveDrive drive;
+
+  /** Commanded speeds, changed every invocation. */
+  private final ChassisSpeeds speeds = new ChassisSpeeds();
+
+  /** Phase of the synthetic command, advanced every invocation. */
+  private double phase = 0.0;
+
+  /** Get the simulated drive. */
+  @Setup
+  public void setup() {
+    drive = SimulatedDrive.get();
+  }
+
+  /** Advance the synthetic command. */
+  private void nextSpeeds() {
+    phase += 0.01;
+    speeds.vxMetersPerSecond = 3.0 * Math.sin(phase);
+    speeds.vyMetersPerSecond = 3.0 * Math.cos(phase);
+    speeds.omegaRadiansPerSecond = 2.0 * Math.sin(phase * 0.5);
+  }
+
+  /** Drive field oriented, including discretization and module setpoints. */
+  @Benchmark
+  public void driveFieldOriented() {
+    nextSpeeds();
+    drive.driveFieldOriented(speeds);
+  }
+
+  /**
+   * Convert chassis speeds to module states.
+   *
+   * @return the module states, so they are not optimized away
+   */
+  @Benchmark
+  public SwerveModuleState[] toSwerveModuleStates() {
+    nextSpeeds();
+    return drive.kinematics.toSwerveModuleStates(speeds);
+  }
+}
@@ -1,6 +1,10 @@
 package frc.robot;
 
 import static edu.wpi.first.units.Units.MetersPerSecond;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.units.measure.LinearVelocity;
 
 /** Constants used throughout the robot code. */
@@ -17,6 +21,225 @@ public final class Constants {
     public static final LinearVelocity MAX_SPEED = MetersPerSecond.of(4.0);
   }
 
+  /** Constants for the main loop. */
+  public static final class LoopConstants {
+    private LoopConstants() {
+    }
+
+    /**
+     * Time into a cycle after which deferrable work is skipped, in seconds. Leaves
+     * a margin before the 20 ms period.
+     */
+    public static final double SHED_THRESHOLD_SECONDS = 0.015;
+  }
+
+  /** Constants for following the compiled autonomous trajectories. */
+  public static final class AutoConstants {
+    private AutoConstants() {
+    }
+
+    /** Proportional gain on the position error, in meters per second per meter. */
+    public static final double TRANSLATION_KP = 2.5;
+
+    /** Proportional gain on the heading error, in radians per second per radian. */
+    public static final double ROTATION_KP = 3.0;
+  }
+
+  /** Constants for the JIT warm-up run while disabled. */
+  public static final class WarmupConstants {
+    private WarmupConstants() {
+    }
+
+    /** Time spent warming up in each disabled cycle, in seconds. */
+    public static final double BUDGET_SECONDS = 0.004;
+
+    /**
+     * Iterations run before warm-up can finish, above the invocation count at
+     * which HotSpot compiles a method with C2.
+     */
+    public static final int MIN_ITERATIONS = 20000;
+
+    /** Consecutive cycles the iteration cost must hold steady to finish. */
+    public static final int STABLE_CYCLES = 25;
+
+    /** Fraction above the best iteration cost still counted as steady. */
+    public static final double STABLE_TOLERANCE = 0.1;
+  }
+
+  /** Constants for aligning to the scoring and pickup poses. */
+  public static final class AlignConstants {
+    private AlignConstants() {
+    }
+
+    /** Distance from the robot center to the front bumper face, in meters. */
+    public static final double BUMPER_HALF_LENGTH_METERS = 0.457;
+
+    /** Side of a cell of the nearest pose index, in meters. */
+    public static final double INDEX_CELL_METERS = 0.5;
+  }
+
+  /** Constants for the straight line drive-to-pose controller. */
+  public static final class DriveToPoseConstants {
+    private DriveToPoseConstants() {
+    }
+
+    /** Largest translation speed in meters per second, the robot's top speed. */
+    public static final double MAX_VELOCITY = RobotConstants.MAX_SPEED.in(MetersPerSecond);
+
+    /** Largest translation acceleration in meters per second squared. */
+    public static final double MAX_ACCELERATION = 4.0;
+
+    /** Largest angular velocity in radians per second. */
+    public static final double MAX_ANGULAR_VELOCITY = 2 * Math.PI;
+
+    /** Largest angular acceleration in radians per second squared. */
+    public static final double MAX_ANGULAR_ACCELERATION = 4 * Math.PI;
+
+    /** Proportional gain on the position error, in meters per second per meter. */
+    public static final double TRANSLATION_KP = 4.0;
+
+    /** Proportional gain on the heading error, in radians per second per radian. */
+    public static final double ROTATION_KP = 4.0;
+  }
+
+  /** Constants for planning drive-to-pose paths around the field elements. */
+  public static final class NavigationConstants {
+    private NavigationConstants() {
+    }
+
+    /** Side of an occupancy grid cell in meters. */
+    public static final double GRID_RESOLUTION_METERS = 0.1;
+
+    /**
+     * Clearance kept between the robot center and field elements in meters, half
+     * the bumper diagonal plus a margin.
+     */
+    public static final double ROBOT_RADIUS_METERS = 0.55;
+
+    /** Distance the target must move before the path is planned again, in meters. */
+    public static final double REPLAN_TARGET_METERS = 0.3;
+
+    /** Distance the robot may stray from the path before it is planned again, in meters. */
+    public static final double REPLAN_DEVIATION_METERS = 0.5;
+
+    /** Distance at which a waypoint counts as reached, in meters. */
+    public static final double WAYPOINT_REACHED_METERS = 0.25;
+
+    /**
+     * Time without a waypoint request after which the next one starts a new
+     * path, in seconds, such as when the align binding is pressed again.
+     */
+    public static final double NEW_REQUEST_GAP_SECONDS = 0.1;
+  }
+
+  /** Constants for the actuator output layer. */
+  public static final class OutputConstants {
+    private OutputConstants() {
+    }
+
+    /**
+     * Longest time an unchanged output goes without being written again, in
+     * seconds, so a lost frame does not leave an actuator in the wrong state.
+     */
+    public static final double REFRESH_INTERVAL_SECONDS = 0.1;
+  }
+
+  /** Constants for the high frequency odometry thread. */
+  public static final class OdometryConstants {
+    private OdometryConstants() {
+    }
+
+    /** Rate the drive encoders and gyro are sampled at, in hertz. */
+    public static final double FREQUENCY_HZ = 250.0;
+
+    /**
+     * Number of samples the odometry queue can hold, must be a power of two. At
+     * 250 Hz this covers a little over 12 main loop cycles.
+     */
+    public static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * Number of poses kept for latency compensation, must be a power of two. At
+     * 250 Hz this covers about 2 seconds.
+     */
+    public static final int POSE_HISTORY_CAPACITY = 512;
+
+    /**
+     * Main loop cycles between synchronizations of the module angle encoders
+     * with the absolute encoders, as YAGSL's odometry thread did.
+     */
+    public static final int ENCODER_SYNC_PERIOD_CYCLES = 5;
+  }
+
+  /** Constants for the desktop physics simulation. */
+  public static final class SimulationConstants {
+    private SimulationConstants() {
+    }
+
+    /** Seed for every random source of the physics simulation. */
+    public static final long SEED = 4533L;
+
+    /**
+     * Physics steps per main loop cycle. 5 steps of 4 ms match the real odometry
+     * rate.
+     */
+    public static final int PHYSICS_SUBTICKS = 5;
+  }
+
+  /** Constants for AprilTag vision. */
+  public static final class VisionConstants {
+    private VisionConstants() {
+    }
+
+    /** Name of the PhotonVision camera. */
+    public static final String CAMERA_NAME = "front";
+
+    /**
+     * Transform from the robot center to the camera. This is the design
+     * position of the mount, only used by the simulation until
+     * {@link #ROBOT_TO_CAMERA_MEASURED} is set.
+     */
+    public static final Transform3d ROBOT_TO_CAMERA = new Transform3d(
+        new Translation3d(0.3, 0.0, 0.2),
+        new Rotation3d(0.0, Math.toRadians(-15.0), 0.0));
+
+    /**
+     * Whether {@link #ROBOT_TO_CAMERA} was measured on the robot. Vision does
+     * not run on the real robot until it is, as a wrong transform shifts every
+     * accepted estimate.
+     */
+    public static final boolean ROBOT_TO_CAMERA_MEASURED = false;
+
+    /** Rate the camera results are processed at, in hertz. */
+    public static final double FREQUENCY_HZ = 100.0;
+
+    /** Number of measurements that can wait for the main loop. */
+    public static final int QUEUE_CAPACITY = 16;
+
+    /** Highest pose ambiguity accepted from a single tag estimate. */
+    public static final double MAX_AMBIGUITY = 0.2;
+
+    /** Furthest average tag distance accepted, in meters. */
+    public static final double MAX_TAG_DISTANCE_METERS = 4.0;
+
+    /** Largest height off the floor accepted for an estimate, in meters. */
+    public static final double MAX_Z_ERROR_METERS = 0.5;
+
+    /**
+     * Largest distance from the odometry pose accepted while enabled, in meters.
+     */
+    public static final double MAX_POSE_JUMP_METERS = 1.0;
+
+    /** Translation standard deviation for one tag at 1 meter, in meters. */
+    public static final double SINGLE_TAG_XY_STD_DEV = 0.2;
+
+    /** Translation standard deviation for multiple tags at 1 meter, in meters. */
+    public static final double MULTI_TAG_XY_STD_DEV = 0.05;
+
+    /** Rotation standard deviation for multiple tags at 1 meter, in radians. */
+    public static final double MULTI_TAG_THETA_STD_DEV = 0.1;
+  }
+
   /*************
    * TODO: figure out real constant values for robot
    ********************/
@@ -75,5 +298,26 @@ public final class Constants {
 
     /** Field width in meters. */
     public static final double FIELD_WIDTH_METERS = 8.052;
+
+    /** X of the blue reef center in meters, the red reef is mirrored about the field center. */
+    public static final double REEF_CENTER_X_METERS = 4.489;
+
+    /** Y of the reef centers in meters. */
+    public static final double REEF_CENTER_Y_METERS = 4.026;
+
+    /** Distance from the reef center to the middle of a face, in meters. */
+    public static final double REEF_APOTHEM_METERS = 0.832;
+
+    /** Length along the field of the wall cut off by a coral station, in meters. */
+    public static final double CORAL_STATION_LENGTH_METERS = 1.7;
+
+    /** Width across the field of the wall cut off by a coral station, in meters. */
+    public static final double CORAL_STATION_WIDTH_METERS = 1.25;
+
+    /** Distance from the middle of a reef face to each of its two branches, in meters. */
+    public static final double REEF_BRANCH_OFFSET_METERS = 0.1643;
+
+    /** Distance between the pickup slots along a coral station, in meters. */
+    public static final double CORAL_STATION_SLOT_SPACING_METERS = 0.6;
   }
 }
@@ -3,7 +3,26 @@ package frc.robot;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.LoopConstants;
+import frc.robot.helpers.CanFrameBudget;
+import frc.robot.helpers.JitWarmup;
+import frc.robot.helpers.LatencyTracker;
+import frc.robot.helpers.LoopBudget;
+import frc.robot.helpers.LoopBudget.Priority;
+import frc.robot.helpers.LoopProfiler;
+import frc.robot.helpers.MatchState;
+import frc.robot.helpers.OccupancyGrid;
+import frc.robot.helpers.OutputLayer;
+import frc.robot.helpers.ScoringPoseIndex;
+import frc.robot.helpers.SensorSnapshot;
+import frc.robot.helpers.SimulationClock;
+import frc.robot.helpers.StartupOrchestrator;
+import frc.robot.helpers.StateRecorder;
+import frc.robot.helpers.TelemetryManager;
+import frc.robot.subsystems.CoralIntake;
 import frc.robot.subsystems.Pneumatics;
+import frc.robot.subsystems.Swerve;
+import frc.robot.subsystems.Vision;
 
 /**
  * Main robot class that manages the robot's lifecycle and operational modes.
@@ -38,9 +57,79 @@ public class Robot extends TimedRobot {
   /** If we have left disabled mode */
   private boolean hasLeftDisabled = false;
 
+  /** Profiler section for the whole scheduler run. */
+  private final LoopProfiler.Section schedulerProfile = LoopProfiler.getInstance().section("CommandScheduler");
+
+  /** Profiler section for the compressor control. */
+  private final LoopProfiler.Section compressorProfile = LoopProfiler.getInstance().section("Compressor");
+
+  /** Runs the work of {@link #robotPeriodic()}, shedding best-effort work when late. */
+  private final LoopBudget loopBudget = new LoopBudget(LoopConstants.SHED_THRESHOLD_SECONDS);
+
+  /** Compiles the drive hot paths while disabled. */
+  private final JitWarmup warmup;
+
   // Private constructor for singleton
   private Robot() {
-    robotContainer = new RobotContainer();
+    startup();
+    warmup = JitWarmup.getInstance();
+    LoopProfiler.getInstance().startCommandTiming();
+    configureLoopBudget();
+  }
+
+  /**
+   * Create the robot through the {@link StartupOrchestrator}. The shared
+   * helpers come first, then the swerve drive, the intake motor, the pneumatic
+   * hub, the AprilTag field layout, the navigation grid and the scoring pose
+   * index are prepared in parallel. The
+   * subsystems themselves register with the command scheduler, so the
+   * container is built on the main thread once every device is ready.
+   */
+  private void startup() {
+    StartupOrchestrator startup = new StartupOrchestrator();
+    startup.phase("Helpers", () -> {
+      MatchState.getInstance();
+      LatencyTracker.getInstance();
+      TelemetryManager.getInstance();
+      OutputLayer.getInstance();
+      CanFrameBudget.getInstance();
+    });
+    startup.phase("FieldLayout", Vision::prepare);
+    startup.phase("SwerveDrive", Swerve::prepare, "Helpers");
+    startup.phase("IntakeMotor", CoralIntake::prepare, "Helpers");
+    startup.phase("Pneumatics", Pneumatics::prepare, "Helpers");
+    startup.phase("OccupancyGrid", OccupancyGrid::getInstance);
+    startup.phase("ScoringPoses", ScoringPoseIndex::getInstance);
+    startup.mainThreadPhase("RobotContainer", () -> robotContainer = new RobotContainer(),
+        "FieldLayout", "SwerveDrive", "IntakeMotor", "Pneumatics", "OccupancyGrid", "ScoringPoses");
+    startup.await();
+  }
+
+  /**
+   * Register the periodic work. Match state, the sensor snapshot, the scheduler,
+   * the state log and the output flush always run, telemetry, profiling and the
+   * compressor are skipped when the loop is running late. A skipped compressor
+   * command is flushed the next cycle.
+   */
+  private void configureLoopBudget() {
+    loopBudget.register("MatchState", Priority.CRITICAL, MatchState.getInstance()::refresh);
+    loopBudget.register("Sense", Priority.CRITICAL, SensorSnapshot.getInstance()::sense);
+    loopBudget.register("CommandScheduler", Priority.CRITICAL, () -> {
+      schedulerProfile.start();
+      CommandScheduler.getInstance().run();
+      schedulerProfile.stop();
+    });
+    loopBudget.register("StateRecorder", Priority.CRITICAL, StateRecorder.getInstance()::periodic);
+    loopBudget.register("Outputs", Priority.CRITICAL, OutputLayer.getInstance()::flush);
+
+    loopBudget.register("Telemetry", Priority.DEFERRABLE, TelemetryManager.getInstance()::periodic);
+    loopBudget.register("Latency", Priority.DEFERRABLE, LatencyTracker.getInstance()::periodic);
+    loopBudget.register("Profiler", Priority.DEFERRABLE, LoopProfiler.getInstance()::periodic);
+    loopBudget.register("Pneumatics", Priority.DEFERRABLE, () -> {
+      compressorProfile.start();
+      robotContainer.pneumatics.enableCompressor();
+      compressorProfile.stop();
+    });
   }
 
   // Public method to get the singleton instance
@@ -61,13 +150,19 @@ public class Robot extends TimedRobot {
    * scheduler to execute
    * ongoing commands and update subsystems. This method is crucial for continuous
    * robot operation
-   * and should not be blocked or delayed.
+   * and should not be blocked or delayed, so best-effort work is run through the
+   * {@link LoopBudget}.
    */
   @Override
   public void robotPeriodic() {
-    CommandScheduler.getInstance().run();
-    Pneumatics.hub.getPressureSwitch();
-    robotContainer.pneumatics.enableCompressor();
+    loopBudget.run();
+  }
+
+  /** Marks the start of every cycle for the {@link LoopBudget}. */
+  @Override
+  protected void loopFunc() {
+    loopBudget.startCycle();
+    super.loopFunc();
   }
 
   /** Called once when the robot is disabled. */
@@ -76,9 +171,15 @@ public class Robot extends TimedRobot {
     robotContainer.pneumatics.disableCompressor();
   }
 
-  /** Called periodically when the robot is disabled. */
+  /**
+   * Called periodically when the robot is disabled. Builds the selected
+   * autonomous routine and warms up the drive hot paths until they are
+   * compiled.
+   */
   @Override
   public void disabledPeriodic() {
+    robotContainer.prebuildAutonomous();
+    warmup.periodic();
   }
 
   /** Called once when disabled mode is exited. */
@@ -161,4 +262,14 @@ public class Robot extends TimedRobot {
   @Override
   public void testExit() {
   }
+
+  /**
+   * Called once when the simulation starts. Simulated time is stepped a fixed
+   * amount after every loop by the {@link SimulationClock}, so a run does not
+   * depend on the wall clock.
+   */
+  @Override
+  public void simulationInit() {
+    SimulationClock.getInstance().start();
+  }
 }
@@ -1,18 +1,23 @@
 package frc.robot;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.Constants.DriveToPoseConstants;
 import frc.robot.Constants.OIConstants;
 import frc.robot.commands.*;
+import frc.robot.helpers.AutoRegistry;
 import frc.robot.helpers.CustomSwerveInput;
+import frc.robot.helpers.DriveToPoseController;
+import frc.robot.helpers.MatchState;
+import frc.robot.helpers.ScoringPoseIndex;
 import frc.robot.subsystems.*;
 
 /**
@@ -66,7 +71,8 @@ public class RobotContainer {
       .cubeRotationControllerAxis(true)
       .deadband(OIConstants.DRIVER_DEADBAND)
       .allianceRelativeControl(true)
-      .headingWhile(true);
+      .headingWhile(true)
+      .freeze();
 
   /** Coral intake subsystem */
   // private final CoralIntake coralIntake = CoralIntake.getInstance();
@@ -83,11 +89,35 @@ public class RobotContainer {
   /** CoralIntake subsystem for handling coral intake */
   private final CoralIntake intake = CoralIntake.getInstance();
 
-  // Add the SendableChooser for autonomous
-  private final SendableChooser<Command> autoChooser = new SendableChooser<>();
+  /** Vision subsystem feeding AprilTag poses to the drive */
+  private final Vision vision = Vision.getInstance();
+
+  /** Navigation subsystem planning drive-to-pose paths around the reef */
+  private final Navigation navigation = Navigation.getInstance();
+
+  /** Scoring and pickup poses to align to */
+  private final ScoringPoseIndex scoringPoses = ScoringPoseIndex.getInstance();
+
+  /** Pose the align binding drives to, picked when it is pressed */
+  private Pose2d alignTarget = scoringPoses.getPose(0, false);
+
+  /** Name of the align target for the drivers */
+  private final StringPublisher alignTargetPublisher = table.getStringTopic("Align Target").publish();
+
+  /**
+   * Input stream driving to the align target around the field elements,
+   * following the waypoints planned by {@link Navigation}.
+   */
+  private final CustomSwerveInput alignStream = driveInputStream.copy()
+      .driveToPose(navigation.waypointTowards(() -> alignTarget), createDriveToPoseController())
+      .driveToPoseEnabled(true)
+      .freeze();
+
+  /** Autonomous routines, built in the background while disabled */
+  private final AutoRegistry autoRegistry = new AutoRegistry("Auto Chooser");
 
   // Trigger for endgame
-  public final Trigger endgame = new Trigger(() -> DriverStation.getMatchTime() <= 30);
+  public final Trigger endgame = new Trigger(() -> MatchState.getInstance().getMatchTime() <= 30);
 
   /**
    * Creates a new RobotContainer and initializes all robot subsystems and
@@ -147,6 +177,38 @@ public class RobotContainer {
     driverController.a().onTrue(climb.stop());
 
     driverController.leftTrigger().onTrue(swerveDrive.correctRotation());
+
+    // Drive to the nearest reef branch or coral station slot while held
+    driverController.x().whileTrue(
+        Commands.runOnce(this::selectAlignTarget)
+            .andThen(swerveDrive.driveFieldOriented(alignStream)));
+  }
+
+  /**
+   * Pick the scoring or pickup pose of our alliance nearest to the robot as the
+   * align target.
+   */
+  private void selectAlignTarget() {
+    boolean red = MatchState.getInstance().isRedAlliance();
+    Pose2d pose = swerveDrive.getPose();
+    int nearest = scoringPoses.nearest(pose.getX(), pose.getY(), red);
+    alignTarget = scoringPoses.getPose(nearest, red);
+    alignTargetPublisher.set(scoringPoses.getName(nearest));
+  }
+
+  /**
+   * Create the controller for driving to a pose along a straight line.
+   *
+   * @return the controller, units are m/s and rad/s
+   */
+  private static DriveToPoseController createDriveToPoseController() {
+    return new DriveToPoseController(
+        DriveToPoseConstants.MAX_VELOCITY,
+        DriveToPoseConstants.MAX_ACCELERATION,
+        DriveToPoseConstants.MAX_ANGULAR_VELOCITY,
+        DriveToPoseConstants.MAX_ANGULAR_ACCELERATION,
+        DriveToPoseConstants.TRANSLATION_KP,
+        DriveToPoseConstants.ROTATION_KP);
   }
 
   /**
@@ -182,23 +244,33 @@ public class RobotContainer {
 
   }
 
-  /** Configure the autonomous command chooser with available options. */
+  /**
+   * Configure the autonomous chooser with available options. Nothing is built
+   * here, only the selected routine is, by {@link #prebuildAutonomous()}.
+   */
   private void configureAutoChooser() {
-    autoChooser.setDefaultOption("None", Commands.none());
-    autoChooser.addOption("Simple Backward Drive", AutoCommands.simpleBackwardDrive());
+    autoRegistry.setDefault("None", red -> Commands::none);
+    autoRegistry.add("Simple Backward Drive", red -> AutoCommands::simpleBackwardDrive);
+    autoRegistry.add("Backward Drive Trajectory", red -> AutoCommands.prepareTrajectory("BackwardDrive", red));
+    autoRegistry.add("Reef Approach", red -> AutoCommands.prepareTrajectory("ReefApproach", red));
+  }
 
-    SmartDashboard.putData("Auto Chooser", autoChooser);
+  /**
+   * Builds the selected autonomous routine for the current alliance in the
+   * background whenever either changes. Called every disabled loop.
+   */
+  public void prebuildAutonomous() {
+    autoRegistry.periodic();
   }
 
   /**
-   * Provides the command to run during autonomous mode. Currently returns a
-   * placeholder command
-   * that prints a message, indicating no autonomous routine is configured.
+   * Provides the command to run during autonomous mode, normally already built
+   * while disabled.
    *
    * @return the command to run in autonomous mode
    */
   public Command getAutonomousCommand() {
-    return autoChooser.getSelected();
+    return autoRegistry.getSelected();
   }
 
   /**
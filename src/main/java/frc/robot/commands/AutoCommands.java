@@ -1,9 +1,12 @@
 package frc.robot.commands;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.helpers.AutoRegistry;
 import frc.robot.subsystems.Swerve;
+import java.util.function.Supplier;
 
 /**
  * Container for autonomous command sequences used during the autonomous period.
@@ -34,10 +37,8 @@ public class AutoCommands {
     return Commands.run(
         () -> {
           // Drive backward at 1.0 m/s in the negative x direction (robot-relative)
-          swerve
-              .getSwerveDrive()
-              .setChassisSpeeds(
-                  new ChassisSpeeds(-1.0, 0, 0) // x velocity, y velocity, rotational velocity
+          swerve.drive(
+              new ChassisSpeeds(-1.0, 0, 0) // x velocity, y velocity, rotational velocity
           );
         },
         swerve)
@@ -45,7 +46,30 @@ public class AutoCommands {
         .andThen(
             () -> {
               // Stop all robot movement by setting velocities to zero
-              swerve.getSwerveDrive().setChassisSpeeds(new ChassisSpeeds(0, 0, 0));
+              swerve.drive(new ChassisSpeeds(0, 0, 0));
             });
   }
+
+  /**
+   * Prepares a command that seeds the pose at the start of a compiled
+   * trajectory and follows it. The trajectory is memory-mapped from
+   * {@code deploy/trajectories}, where the {@code generateTrajectories} build
+   * step writes it, paged in and flipped for the alliance here, so this can run
+   * on the {@link AutoRegistry} thread. The returned supplier only composes the
+   * command.
+   *
+   * @param name Name of the trajectory, such as {@code "BackwardDrive"}
+   * @param red  Whether to follow the trajectory for the red alliance
+   * @return Creates a command following the trajectory, ending when its time
+   *         is up
+   */
+  public static Supplier<Command> prepareTrajectory(String name, boolean red) {
+    Swerve swerve = Swerve.getInstance();
+    CompiledTrajectory trajectory = CompiledTrajectory.load(name).preload();
+    Pose2d initialPose = trajectory.getInitialPose(red);
+
+    return () -> Commands.runOnce(() -> swerve.resetOdometry(initialPose))
+        .andThen(swerve.followTrajectory(trajectory))
+        .withName(name);
+  }
 }
@@ -0,0 +1,179 @@
+package frc.robot.commands;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants.FieldConstants;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A trajectory generated at build time, memory-mapped from
+ * {@code deploy/trajectories}. Loading costs one map call and no parsing, and
+ * {@link #sample(double, boolean, double[])} reads the mapped file directly,
+ * so following it creates no garbage.
+ *
+ * <p>
+ * The file is little endian: a 32 byte header of the magic {@code "TRAJ"},
+ * the format version, the sample count, a reserved int, the sample period and
+ * the total time in seconds, then one sample per period of x, y and heading
+ * and the field relative vx, vy and omega, all doubles. Paths are stored for
+ * the blue alliance and rotated about the field center for red.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * CompiledTrajectory trajectory = CompiledTrajectory.load("BackwardDrive");
+ * double[] state = new double[CompiledTrajectory.STATE_SIZE];
+ * trajectory.sample(elapsed, isRed, state);
+ * }</pre>
+ */
+public final class CompiledTrajectory {
+  /** Index of the x position in meters in a sampled state. */
+  public static final int X = 0;
+  /** Index of the y position in meters. */
+  public static final int Y = 1;
+  /** Index of the heading in radians. */
+  public static final int HEADING = 2;
+  /** Index of the field relative x velocity in meters per second. */
+  public static final int VX = 3;
+  /** Index of the field relative y velocity in meters per second. */
+  public static final int VY = 4;
+  /** Index of the angular velocity in radians per second. */
+  public static final int OMEGA = 5;
+  /** Number of doubles in a sampled state. */
+  public static final int STATE_SIZE = 6;
+
+  /** File magic, "TRAJ" read as a little endian int. */
+  private static final int MAGIC = 0x4A415254;
+
+  /** Format version this reader understands. */
+  private static final int VERSION = 1;
+
+  /** Header size in bytes. */
+  private static final int HEADER_BYTES = 32;
+
+  /** Bytes per sample. */
+  private static final int SAMPLE_BYTES = STATE_SIZE * Double.BYTES;
+
+  private final String name;
+  private final MappedByteBuffer buffer;
+  private final int sampleCount;
+  private final double samplePeriod;
+  private final double totalTime;
+
+  private CompiledTrajectory(String name, MappedByteBuffer buffer) {
+    this.name = name;
+    this.buffer = buffer;
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Trajectory " + name + " is not a version " + VERSION + " trajectory");
+    }
+    sampleCount = buffer.getInt(8);
+    samplePeriod = buffer.getDouble(16);
+    totalTime = buffer.getDouble(24);
+    if (sampleCount < 1 || buffer.capacity() != HEADER_BYTES + sampleCount * SAMPLE_BYTES) {
+      throw new IllegalArgumentException("Trajectory " + name + " is truncated");
+    }
+  }
+
+  /**
+   * Memory-map a trajectory from {@code deploy/trajectories}.
+   *
+   * @param name Name of the trajectory, without the extension.
+   * @return The trajectory.
+   * @throws UncheckedIOException if the file cannot be mapped.
+   */
+  public static CompiledTrajectory load(String name) {
+    File file = new File(new File(Filesystem.getDeployDirectory(), "trajectories"), name + ".traj");
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return new CompiledTrajectory(name, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not map trajectory " + file, e);
+    }
+  }
+
+  /**
+   * Read the whole file into memory, so sampling does not wait on a page fault
+   * while the trajectory is followed.
+   *
+   * @return This trajectory.
+   */
+  public CompiledTrajectory preload() {
+    buffer.load();
+    return this;
+  }
+
+  /**
+   * Get the name of the trajectory.
+   *
+   * @return The name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the duration of the trajectory.
+   *
+   * @return The duration in seconds.
+   */
+  public double getTotalTime() {
+    return totalTime;
+  }
+
+  /**
+   * Get the starting pose for an alliance.
+   *
+   * @param red Whether to flip the trajectory for the red alliance.
+   * @return The starting pose.
+   */
+  public Pose2d getInitialPose(boolean red) {
+    double[] state = new double[STATE_SIZE];
+    sample(0.0, red, state);
+    return new Pose2d(state[X], state[Y], Rotation2d.fromRadians(state[HEADING]));
+  }
+
+  /**
+   * Sample the trajectory, interpolating between the stored samples. Times
+   * outside the trajectory are clamped to its ends.
+   *
+   * @param time Time since the start in seconds.
+   * @param red  Whether to flip the trajectory for the red alliance.
+   * @param out  Array of {@link #STATE_SIZE} receiving the state.
+   */
+  public void sample(double time, boolean red, double[] out) {
+    double position = MathUtil.clamp(time, 0.0, totalTime) / samplePeriod;
+    int index = Math.min((int) position, sampleCount - 1);
+    int next = Math.min(index + 1, sampleCount - 1);
+    double fraction = Math.min(position - index, 1.0);
+
+    int offset = HEADER_BYTES + index * SAMPLE_BYTES;
+    int nextOffset = HEADER_BYTES + next * SAMPLE_BYTES;
+    for (int i = 0; i < STATE_SIZE; i++) {
+      double start = buffer.getDouble(offset + i * Double.BYTES);
+      double end = buffer.getDouble(nextOffset + i * Double.BYTES);
+      if (i == HEADING) {
+        out[i] = start + MathUtil.angleModulus(end - start) * fraction;
+      } else {
+        out[i] = start + (end - start) * fraction;
+      }
+    }
+
+    if (red) {
+      out[X] = FieldConstants.FIELD_LENGTH_METERS - out[X];
+      out[Y] = FieldConstants.FIELD_WIDTH_METERS - out[Y];
+      out[HEADING] += Math.PI;
+      out[VX] = -out[VX];
+      out[VY] = -out[VY];
+    }
+    out[HEADING] = MathUtil.angleModulus(out[HEADING]);
+  }
+}
@@ -0,0 +1,196 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Autonomous routines built lazily, chosen on the dashboard. While disabled,
+ * {@link #periodic()} watches the selection and the alliance, and when either
+ * changes it prepares the chosen routine on a background thread: loading
+ * paths, flipping them and computing poses. The command itself is then
+ * assembled on the main thread, as composing commands registers them with the
+ * scheduler, which is not thread safe. {@link #getSelected()} then returns the
+ * built command without doing any work.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * AutoRegistry autos = new AutoRegistry("Auto Chooser");
+ * autos.setDefault("None", red -> Commands::none);
+ * autos.add("Reef Approach", red -> AutoCommands.prepareTrajectory("ReefApproach", red));
+ * }</pre>
+ */
+public final class AutoRegistry {
+  /** Prepares a routine for an alliance. */
+  @FunctionalInterface
+  public interface Factory {
+    /**
+     * Do the expensive work of a routine. Runs on the background thread, so it
+     * must not create commands.
+     *
+     * @param red Whether the routine is for the red alliance.
+     * @return Creates the command from the prepared work, on the main thread.
+     */
+    Supplier<Command> prepare(boolean red);
+  }
+
+  /** Routines by name, in the order they were added. */
+  private final Map<String, Factory> factories = new LinkedHashMap<>();
+
+  private final SendableChooser<String> chooser = new SendableChooser<>();
+
+  /** Thread preparing the routines. */
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "AutoRegistry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Name of the routine being prepared or built, null before the first selection. */
+  private String pendingName = null;
+
+  /** Alliance of the routine being prepared or built. */
+  private boolean pendingRed = false;
+
+  /** Preparation of the pending routine. */
+  private CompletableFuture<Supplier<Command>> pending = null;
+
+  /** Start of the pending preparation, in nanoseconds. */
+  private long pendingStartNanos = 0;
+
+  /** Built command of the pending routine, null until it is ready. */
+  private Command built = null;
+
+  /**
+   * Whether the pending routine failed to prepare or build. It is not tried
+   * again until the selection or the alliance changes.
+   */
+  private boolean failed = false;
+
+  private final StringPublisher builtPublisher;
+  private final DoublePublisher buildTimePublisher;
+
+  /**
+   * Create a registry and publish its chooser.
+   *
+   * @param chooserName SmartDashboard key of the chooser.
+   */
+  public AutoRegistry(String chooserName) {
+    SmartDashboard.putData(chooserName, chooser);
+
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Auto");
+    builtPublisher = table.getStringTopic("Built").publish();
+    buildTimePublisher = table.getDoubleTopic("BuildMs").publish();
+    builtPublisher.set("");
+  }
+
+  /**
+   * Add the default routine, selected until the drivers choose another.
+   *
+   * @param name    Name shown on the dashboard.
+   * @param factory Prepares the routine.
+   */
+  public void setDefault(String name, Factory factory) {
+    factories.put(name, factory);
+    chooser.setDefaultOption(name, name);
+  }
+
+  /**
+   * Add a routine.
+   *
+   * @param name    Name shown on the dashboard.
+   * @param factory Prepares the routine.
+   */
+  public void add(String name, Factory factory) {
+    factories.put(name, factory);
+    chooser.addOption(name, name);
+  }
+
+  /**
+   * Start preparing the selected routine when the selection or the alliance
+   * changed, and build it once prepared. Called every disabled loop.
+   */
+  public void periodic() {
+    String name = chooser.getSelected();
+    boolean red = MatchState.getInstance().isRedAlliance();
+    if (name == null) {
+      return;
+    }
+    if (!name.equals(pendingName) || red != pendingRed) {
+      pendingName = name;
+      pendingRed = red;
+      built = null;
+      failed = false;
+      pendingStartNanos = System.nanoTime();
+      Factory factory = factories.get(name);
+      pending = CompletableFuture.supplyAsync(() -> factory.prepare(red), executor);
+      return;
+    }
+
+    if (built == null && !failed && pending.isDone()) {
+      built = build();
+    }
+  }
+
+  /**
+   * Build the pending routine from its preparation.
+   *
+   * @return The command, or null if the preparation failed.
+   */
+  private Command build() {
+    try {
+      Command command = pending.join().get();
+      double buildMs = (System.nanoTime() - pendingStartNanos) / 1.0e6;
+      builtPublisher.set(pendingName + (pendingRed ? " (red)" : " (blue)"));
+      buildTimePublisher.set(buildMs);
+      return command;
+    } catch (RuntimeException e) {
+      DriverStation.reportError("Could not build auto " + pendingName + ": " + e, e.getStackTrace());
+      failed = true;
+      return null;
+    }
+  }
+
+  /**
+   * Get the command of the selected routine for the current alliance. It is
+   * normally built already, if not it is built now. A routine that cannot be
+   * built is reported and replaced by a command that does nothing, so a broken
+   * auto never stops the robot code at the start of a match.
+   *
+   * @return The command to schedule.
+   */
+  public Command getSelected() {
+    String name = chooser.getSelected();
+    boolean red = MatchState.getInstance().isRedAlliance();
+    boolean current = name.equals(pendingName) && red == pendingRed;
+    if (current && built != null) {
+      return built;
+    }
+    if (current && failed) {
+      DriverStation.reportError("Auto " + name + " could not be built, running no auto", false);
+      return Commands.none();
+    }
+
+    DriverStation.reportWarning("Auto " + name + " was not built in advance, building it now", false);
+    try {
+      return factories.get(name).prepare(red).get();
+    } catch (RuntimeException e) {
+      DriverStation.reportError("Could not build auto " + name + ", running no auto: " + e, e.getStackTrace());
+      return Commands.none();
+    }
+  }
+}
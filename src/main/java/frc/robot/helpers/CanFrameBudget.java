@@ -0,0 +1,230 @@
+package frc.robot.helpers;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SignalsConfig;
+import com.revrobotics.spark.config.SparkMaxConfig;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.generated.CanFrameConfig;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Applies CAN status frame periods to each device by role, from
+ * {@code deploy/canframes.json} as compiled into {@link CanFrameConfig} at
+ * build time, and estimates the bus utilization they cause.
+ * Frames the code reads often, such as the odometry encoders, can be raised
+ * while the ones nobody reads are slowed down.
+ *
+ * <p>
+ * A role lists a period in milliseconds for each signal. Signals left out keep
+ * the device default. The estimate counts every status frame at its period
+ * plus one control frame per motor controller each loop, at the worst case
+ * size of an extended CAN frame. It is published with the utilization
+ * measured by the roboRIO under {@code Robot/CAN}.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * CanFrameBudget.getInstance().apply(intakeMotor, "intake");
+ * }</pre>
+ */
+public final class CanFrameBudget {
+  /** Singleton instance. */
+  private static CanFrameBudget instance;
+
+  /**
+   * Gets the singleton instance of the CAN frame budget.
+   *
+   * @return The singleton instance.
+   */
+  public static CanFrameBudget getInstance() {
+    if (instance == null) {
+      instance = new CanFrameBudget();
+    }
+    return instance;
+  }
+
+  /** SparkMax signals, grouped into the status frame that carries them. */
+  private enum SparkSignal {
+    APPLIED_OUTPUT("appliedOutput", 0, 10, SignalsConfig::appliedOutputPeriodMs),
+    BUS_VOLTAGE("busVoltage", 0, 10, SignalsConfig::busVoltagePeriodMs),
+    OUTPUT_CURRENT("outputCurrent", 0, 10, SignalsConfig::outputCurrentPeriodMs),
+    MOTOR_TEMPERATURE("motorTemperature", 0, 10, SignalsConfig::motorTemperaturePeriodMs),
+    FAULTS("faults", 1, 20, SignalsConfig::faultsPeriodMs),
+    WARNINGS("warnings", 1, 20, SignalsConfig::warningsPeriodMs),
+    PRIMARY_ENCODER_VELOCITY("primaryEncoderVelocity", 2, 20, SignalsConfig::primaryEncoderVelocityPeriodMs),
+    PRIMARY_ENCODER_POSITION("primaryEncoderPosition", 2, 20, SignalsConfig::primaryEncoderPositionPeriodMs),
+    ANALOG_VOLTAGE("analogVoltage", 3, 50, SignalsConfig::analogVoltagePeriodMs),
+    ABSOLUTE_ENCODER_POSITION("absoluteEncoderPosition", 5, 200, SignalsConfig::absoluteEncoderPositionPeriodMs),
+    ABSOLUTE_ENCODER_VELOCITY("absoluteEncoderVelocity", 6, 200, SignalsConfig::absoluteEncoderVelocityPeriodMs),
+    I_ACCUMULATION("iAccumulation", 7, 20, SignalsConfig::iAccumulationPeriodMs);
+
+    /** Key in the role config. */
+    private final String key;
+
+    /** Status frame carrying the signal. */
+    private final int frame;
+
+    /** Firmware default period in milliseconds. */
+    private final int defaultPeriodMs;
+
+    /** Sets the period in a config. */
+    private final BiConsumer<SignalsConfig, Integer> setter;
+
+    SparkSignal(String key, int frame, int defaultPeriodMs, BiConsumer<SignalsConfig, Integer> setter) {
+      this.key = key;
+      this.frame = frame;
+      this.defaultPeriodMs = defaultPeriodMs;
+      this.setter = setter;
+    }
+  }
+
+  /** CANcoder signals, each counted as its own frame. */
+  private enum CANcoderSignal {
+    ABSOLUTE_POSITION("absolutePosition", 10, CANcoder::getAbsolutePosition),
+    POSITION("position", 10, CANcoder::getPosition),
+    VELOCITY("velocity", 10, CANcoder::getVelocity),
+    MAGNET_HEALTH("magnetHealth", 250, CANcoder::getMagnetHealth),
+    SUPPLY_VOLTAGE("supplyVoltage", 250, CANcoder::getSupplyVoltage);
+
+    /** Key in the role config. */
+    private final String key;
+
+    /** Default period in milliseconds. */
+    private final int defaultPeriodMs;
+
+    /** Gets the signal from a device. */
+    private final Function<CANcoder, BaseStatusSignal> getter;
+
+    CANcoderSignal(String key, int defaultPeriodMs, Function<CANcoder, BaseStatusSignal> getter) {
+      this.key = key;
+      this.defaultPeriodMs = defaultPeriodMs;
+      this.getter = getter;
+    }
+  }
+
+  /** Number of SparkMax status frames. */
+  private static final int SPARK_FRAME_COUNT = 8;
+
+  /** Worst case bits in an extended frame with 8 data bytes, with bit stuffing. */
+  private static final double BITS_PER_FRAME = 160.0;
+
+  /** Control frames sent to each motor controller per second, one per loop. */
+  private static final double CONTROL_FRAMES_PER_SECOND = 50.0;
+
+  /** Estimated frames per second of every configured role. */
+  private final Map<String, Double> roleFramesPerSecond = new LinkedHashMap<>();
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("CAN");
+  private final DoublePublisher estimatedPublisher = table.getDoubleTopic("EstimatedUtilization").publish();
+  private final DoublePublisher measuredPublisher = table.getDoubleTopic("MeasuredUtilization").publish();
+
+  private CanFrameBudget() {
+    TelemetryManager.getInstance().register(
+        "CANUtilization", 8, () -> measuredPublisher.set(RobotController.getCANStatus().percentBusUtilization),
+        50, 50, 50);
+  }
+
+  /**
+   * Check that a role is configured.
+   *
+   * @param role Role name.
+   * @return True if the role is in the config.
+   */
+  private static boolean hasRole(String role) {
+    boolean configured = CanFrameConfig.hasRole(role);
+    if (!configured) {
+      DriverStation.reportWarning("No CAN frame config for role " + role, false);
+    }
+    return configured;
+  }
+
+  /**
+   * Apply a role's status frame periods to a SparkMax. Settings are not
+   * persisted, so they are applied again every boot.
+   *
+   * @param motor Motor controller to configure.
+   * @param role  Role name in {@code canframes.json}.
+   */
+  public void apply(SparkMax motor, String role) {
+    boolean configured = hasRole(role);
+    int[] framePeriodsMs = new int[SPARK_FRAME_COUNT];
+    SparkMaxConfig sparkConfig = new SparkMaxConfig();
+
+    for (SparkSignal signal : SparkSignal.values()) {
+      int periodMs = signal.defaultPeriodMs;
+      int configuredPeriodMs = CanFrameConfig.getPeriodMs(role, signal.key);
+      if (configuredPeriodMs > 0) {
+        periodMs = configuredPeriodMs;
+        signal.setter.accept(sparkConfig.signals, periodMs);
+      }
+      // A frame is sent at the fastest period of the signals it carries.
+      if (framePeriodsMs[signal.frame] == 0 || periodMs < framePeriodsMs[signal.frame]) {
+        framePeriodsMs[signal.frame] = periodMs;
+      }
+    }
+    if (configured) {
+      motor.configure(sparkConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+    }
+
+    double framesPerSecond = CONTROL_FRAMES_PER_SECOND;
+    for (int periodMs : framePeriodsMs) {
+      if (periodMs > 0) {
+        framesPerSecond += 1000.0 / periodMs;
+      }
+    }
+    addEstimate(role, framesPerSecond);
+  }
+
+  /**
+   * Apply a role's status signal rates to a CANcoder.
+   *
+   * @param encoder Encoder to configure.
+   * @param role    Role name in {@code canframes.json}.
+   */
+  public void apply(CANcoder encoder, String role) {
+    hasRole(role);
+    double framesPerSecond = 0.0;
+
+    for (CANcoderSignal signal : CANcoderSignal.values()) {
+      int periodMs = signal.defaultPeriodMs;
+      int configuredPeriodMs = CanFrameConfig.getPeriodMs(role, signal.key);
+      if (configuredPeriodMs > 0) {
+        periodMs = configuredPeriodMs;
+        signal.getter.apply(encoder).setUpdateFrequency(1000.0 / periodMs);
+      }
+      framesPerSecond += 1000.0 / periodMs;
+    }
+    addEstimate(role, framesPerSecond);
+  }
+
+  /**
+   * Add a device to the utilization estimate and publish it. Synchronized as
+   * devices are configured by parallel startup phases.
+   *
+   * @param role            Role of the device.
+   * @param framesPerSecond Frames the device causes per second.
+   */
+  private synchronized void addEstimate(String role, double framesPerSecond) {
+    roleFramesPerSecond.merge(role, framesPerSecond, Double::sum);
+
+    double total = 0.0;
+    for (Map.Entry<String, Double> entry : roleFramesPerSecond.entrySet()) {
+      double utilization = entry.getValue() * BITS_PER_FRAME / CanFrameConfig.BITRATE;
+      table.getSubTable("Roles").getEntry(entry.getKey()).setDouble(utilization);
+      total += utilization;
+    }
+    estimatedPublisher.set(total);
+  }
+}
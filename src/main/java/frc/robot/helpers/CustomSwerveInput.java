@@ -4,18 +4,18 @@ import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.XboxController;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import swervelib.SwerveController;
 import swervelib.SwerveDrive;
-import swervelib.math.SwerveMath;
 
 /**
  * Helper class to easily transform Controller inputs into workable Chassis
@@ -43,11 +43,18 @@ import swervelib.math.SwerveMath;
  *                                                                  // driveAngularVelocity
  *     .withControllerHeadingAxis(driverXbox::getRightX,
  *         driverXbox::getRightY) // Axis which give the desired heading angle using trigonometry.
- *     .headingWhile(true); // Enable heading based control.
+ *     .headingWhile(true) // Enable heading based control.
+ *     .freeze(); // Compile and validate the configuration.
  * }</pre>
  */
 public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
 
+  /**
+   * Shared always-true supplier used by the boolean overloads so they do not
+   * capture a new lambda.
+   */
+  private static final BooleanSupplier ALWAYS_ENABLED = () -> true;
+
   /** Translation suppliers. */
   private final DoubleSupplier controllerTranslationX;
 
@@ -69,14 +76,14 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
   /** Direct heading supplier as Rotation2d. */
   private Optional<Supplier<Rotation2d>> headingSupplier = Optional.empty();
 
-  /** Axis deadband for the controller. */
-  private Optional<Double> axisDeadband = Optional.empty();
+  /** Axis deadband for the controller, 0 when disabled. */
+  private double axisDeadband = 0.0;
 
   /** Translational axis scalar value, should be between (0, 1]. */
-  private Optional<Double> translationAxisScale = Optional.empty();
+  private double translationAxisScale = 1.0;
 
   /** Angular velocity axis scalar value, should be between (0, 1] */
-  private Optional<Double> omegaAxisScale = Optional.empty();
+  private double omegaAxisScale = 1.0;
 
   /** Target to aim at. */
   private Optional<Pose2d> aimTarget = Optional.empty();
@@ -104,11 +111,17 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   private Optional<ProfiledPIDController> driveToPoseOmegaPIDController = Optional.empty();
 
+  /**
+   * {@link DriveToPoseController} moving along a straight line while driving to
+   * a pose, used instead of the per axis controllers when set.
+   */
+  private Optional<DriveToPoseController> driveToPoseController = Optional.empty();
+
   /** Output {@link ChassisSpeeds} based on heading while this is True. */
   private Optional<BooleanSupplier> headingEnabled = Optional.empty();
 
-  /** Locked heading for {@link SwerveInputMode#TRANSLATION_ONLY} */
-  private Optional<Rotation2d> lockedHeading = Optional.empty();
+  /** Locked heading in radians for {@link SwerveInputMode#TRANSLATION_ONLY} */
+  private double lockedHeadingRadians = 0.0;
 
   /** Output {@link ChassisSpeeds} based on aim while this is True. */
   private Optional<BooleanSupplier> aimEnabled = Optional.empty();
@@ -134,8 +147,11 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
   /** Heading offset enable state. */
   private Optional<BooleanSupplier> headingOffsetEnabled = Optional.empty();
 
-  /** Heading offset to apply during heading based control. */
-  private Optional<Rotation2d> headingOffset = Optional.empty();
+  /** Heading offset in radians to apply during heading based control. */
+  private double headingOffsetRadians = 0.0;
+
+  /** Whether a heading offset angle has been set. */
+  private boolean headingOffsetPresent = false;
 
   /** {@link SwerveController} for simple control over heading. */
   private SwerveController swerveController = null;
@@ -147,6 +163,30 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
   private Optional<BooleanSupplier> dynamicTranslationScaling = Optional.empty();
   private double dynamicTranslationScaleFactor = 1.0;
 
+  /**
+   * Translation stages compiled by {@link #freeze()}, null when the
+   * configuration changed since the last freeze.
+   */
+  private TranslationStage[] translationStages = null;
+
+  /** Enabled mode candidates compiled by {@link #freeze()}, in priority order. */
+  private ModeCandidate[] modeCandidates;
+
+  /** Mode used when none of the {@link #modeCandidates} are enabled. */
+  private SwerveInputMode fallbackMode;
+
+  /**
+   * Mode controllers compiled by {@link #freeze()}, indexed by
+   * {@link SwerveInputMode#ordinal()}.
+   */
+  private final ModeController[] modeControllers = new ModeController[SwerveInputMode.values().length];
+
+  /** Robot relative trigger compiled by {@link #freeze()}, null when unused. */
+  private BooleanSupplier robotRelativeTrigger;
+
+  /** Scratch state the compiled pipeline operates on. */
+  private final PipelineState state = new PipelineState();
+
   /**
    * Create a {@link CustomSwerveInput} for an easy way to generate
    * {@link ChassisSpeeds} from a
@@ -232,20 +272,22 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     newStream.driveToPoseXPIDController = driveToPoseXPIDController;
     newStream.driveToPoseYPIDController = driveToPoseYPIDController;
     newStream.driveToPoseOmegaPIDController = driveToPoseOmegaPIDController;
+    newStream.driveToPoseController = driveToPoseController;
     newStream.aimTarget = aimTarget;
     newStream.headingEnabled = headingEnabled;
     newStream.aimEnabled = aimEnabled;
     newStream.driveToPoseEnabled = driveToPoseEnabled;
     newStream.currentMode = currentMode;
     newStream.translationOnlyEnabled = translationOnlyEnabled;
-    newStream.lockedHeading = lockedHeading;
+    newStream.lockedHeadingRadians = lockedHeadingRadians;
     newStream.swerveController = swerveController;
     newStream.omegaCube = omegaCube;
     newStream.translationCube = translationCube;
     newStream.robotRelative = robotRelative;
     newStream.allianceRelative = allianceRelative;
     newStream.headingOffsetEnabled = headingOffsetEnabled;
-    newStream.headingOffset = headingOffset;
+    newStream.headingOffsetRadians = headingOffsetRadians;
+    newStream.headingOffsetPresent = headingOffsetPresent;
     newStream.dynamicTranslationScaling = dynamicTranslationScaling;
     newStream.dynamicTranslationScaleFactor = dynamicTranslationScaleFactor;
     return newStream;
@@ -259,7 +301,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput robotRelative(BooleanSupplier enabled) {
     robotRelative = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -269,8 +311,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput robotRelative(boolean enabled) {
-    robotRelative = enabled ? Optional.of(() -> enabled) : Optional.empty();
-    return this;
+    robotRelative = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -292,7 +334,25 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     driveToPoseXPIDController = Optional.of(xPIDController);
     driveToPoseYPIDController = Optional.of(yPIDController);
     driveToPoseOmegaPIDController = Optional.of(omegaPIDController);
-    return this;
+    driveToPoseController = Optional.empty();
+    return invalidate();
+  }
+
+  /**
+   * Drive to a given pose with a {@link DriveToPoseController}, along a straight
+   * line with the rotation ending at the same time as the translation.
+   *
+   * @param pose       {@link Supplier<Pose2d>} for ease of use.
+   * @param controller Controller planning the motion, units are m/s and rad/s.
+   * @return self
+   */
+  public CustomSwerveInput driveToPose(Supplier<Pose2d> pose, DriveToPoseController controller) {
+    driveToPose = Optional.of(pose);
+    driveToPoseController = Optional.of(controller);
+    driveToPoseXPIDController = Optional.empty();
+    driveToPoseYPIDController = Optional.empty();
+    driveToPoseOmegaPIDController = Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -324,7 +384,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput driveToPoseEnabled(BooleanSupplier enabled) {
     driveToPoseEnabled = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -334,8 +394,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self.
    */
   public CustomSwerveInput driveToPoseEnabled(boolean enabled) {
-    driveToPoseEnabled = enabled ? Optional.of(() -> enabled) : Optional.empty();
-    return this;
+    driveToPoseEnabled = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -346,7 +406,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput headingOffset(BooleanSupplier enabled) {
     headingOffsetEnabled = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -356,8 +416,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput headingOffset(boolean enabled) {
-    headingOffsetEnabled = enabled ? Optional.of(() -> enabled) : Optional.empty();
-    return this;
+    headingOffsetEnabled = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -367,8 +427,9 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput headingOffset(Rotation2d angle) {
-    headingOffset = Optional.of(angle);
-    return this;
+    headingOffsetRadians = angle.getRadians();
+    headingOffsetPresent = true;
+    return invalidate();
   }
 
   /**
@@ -380,7 +441,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput allianceRelativeControl(BooleanSupplier enabled) {
     allianceRelative = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -391,8 +452,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput allianceRelativeControl(boolean enabled) {
-    allianceRelative = enabled ? Optional.of(() -> enabled) : Optional.empty();
-    return this;
+    allianceRelative = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -403,7 +464,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput cubeRotationControllerAxis(BooleanSupplier enabled) {
     omegaCube = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -413,8 +474,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self.
    */
   public CustomSwerveInput cubeRotationControllerAxis(boolean enabled) {
-    omegaCube = Optional.of(() -> enabled);
-    return this;
+    omegaCube = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -425,7 +486,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput cubeTranslationControllerAxis(BooleanSupplier enabled) {
     translationOnlyEnabled = Optional.of(enabled);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -435,8 +496,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput cubeTranslationControllerAxis(boolean enabled) {
-    translationCube = enabled ? Optional.of(() -> enabled) : Optional.empty();
-    return this;
+    translationCube = enabled ? Optional.of(ALWAYS_ENABLED) : Optional.empty();
+    return invalidate();
   }
 
   /**
@@ -447,7 +508,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput withControllerRotationAxis(DoubleSupplier rot) {
     controllerOmega = Optional.of(rot);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -462,7 +523,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     controllerHeadingX = Optional.of(headingX);
     controllerHeadingY = Optional.of(headingY);
     headingSupplier = Optional.empty(); // Clear any direct heading supplier
-    return this;
+    return invalidate();
   }
 
   /**
@@ -475,7 +536,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     headingSupplier = Optional.of(heading);
     controllerHeadingX = Optional.empty(); // Clear controller axes
     controllerHeadingY = Optional.empty(); // Clear controller axes
-    return this;
+    return invalidate();
   }
 
   /**
@@ -485,8 +546,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return self
    */
   public CustomSwerveInput deadband(double deadband) {
-    axisDeadband = deadband == 0 ? Optional.empty() : Optional.of(deadband);
-    return this;
+    axisDeadband = deadband;
+    return invalidate();
   }
 
   /**
@@ -497,8 +558,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return this
    */
   public CustomSwerveInput scaleTranslation(double scaleTranslation) {
-    translationAxisScale = scaleTranslation == 0 ? Optional.empty() : Optional.of(scaleTranslation);
-    return this;
+    translationAxisScale = scaleTranslation == 0 ? 1.0 : scaleTranslation;
+    return invalidate();
   }
 
   /**
@@ -514,7 +575,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
   public CustomSwerveInput scaleTranslation(BooleanSupplier condition, double scale) {
     dynamicTranslationScaling = Optional.of(condition);
     dynamicTranslationScaleFactor = scale;
-    return this;
+    return invalidate();
   }
 
   /**
@@ -526,8 +587,8 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    * @return this
    */
   public CustomSwerveInput scaleRotation(double scaleRotation) {
-    omegaAxisScale = scaleRotation == 0 ? Optional.empty() : Optional.of(scaleRotation);
-    return this;
+    omegaAxisScale = scaleRotation == 0 ? 1.0 : scaleRotation;
+    return invalidate();
   }
 
   /**
@@ -538,7 +599,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput headingWhile(BooleanSupplier trigger) {
     headingEnabled = Optional.of(trigger);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -549,11 +610,11 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput headingWhile(boolean headingState) {
     if (headingState) {
-      headingEnabled = Optional.of(() -> true);
+      headingEnabled = Optional.of(ALWAYS_ENABLED);
     } else {
       headingEnabled = Optional.empty();
     }
-    return this;
+    return invalidate();
   }
 
   /**
@@ -564,7 +625,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput aim(Pose2d aimTarget) {
     this.aimTarget = aimTarget.equals(Pose2d.kZero) ? Optional.empty() : Optional.of(aimTarget);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -575,7 +636,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput aimWhile(BooleanSupplier trigger) {
     aimEnabled = Optional.of(trigger);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -586,11 +647,11 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput aimWhile(boolean trigger) {
     if (trigger) {
-      aimEnabled = Optional.of(() -> true);
+      aimEnabled = Optional.of(ALWAYS_ENABLED);
     } else {
       aimEnabled = Optional.empty();
     }
-    return this;
+    return invalidate();
   }
 
   /**
@@ -601,7 +662,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput translationOnlyWhile(BooleanSupplier trigger) {
     translationOnlyEnabled = Optional.of(trigger);
-    return this;
+    return invalidate();
   }
 
   /**
@@ -612,60 +673,303 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
    */
   public CustomSwerveInput translationOnlyWhile(boolean translationState) {
     if (translationState) {
-      translationOnlyEnabled = Optional.of(() -> true);
+      translationOnlyEnabled = Optional.of(ALWAYS_ENABLED);
     } else {
       translationOnlyEnabled = Optional.empty();
     }
+    return invalidate();
+  }
+
+  /**
+   * Mark the compiled pipeline as stale after a configuration change. The next
+   * {@link #get(ChassisSpeeds)} call recompiles it.
+   *
+   * @return self
+   */
+  private CustomSwerveInput invalidate() {
+    translationStages = null;
+    return this;
+  }
+
+  /**
+   * Compile the current configuration into a flat pipeline of active stages
+   * (deadband, scale, cube, alliance flip, then the mode controller) and
+   * validate it. Features that are not configured get no stage and cost nothing
+   * while driving. Call this once after configuring the stream so mistakes are
+   * found when the robot code starts instead of every loop.
+   *
+   * @return self
+   * @throws IllegalStateException if a mode is enabled without the
+   *                               information it needs.
+   */
+  public CustomSwerveInput freeze() {
+    if (driveToPoseEnabled.isPresent()
+        && (driveToPose.isEmpty()
+            || (driveToPoseController.isEmpty()
+                && (driveToPoseXPIDController.isEmpty()
+                    || driveToPoseYPIDController.isEmpty()
+                    || driveToPoseOmegaPIDController.isEmpty())))) {
+      throw new IllegalStateException(
+          "Drive to pose enabled without a pose supplier and controllers, please use"
+              + " CustomSwerveInput.driveToPose first!");
+    }
+    if (aimEnabled.isPresent() && aimTarget.isEmpty()) {
+      throw new IllegalStateException(
+          "Aiming enabled without target, please use CustomSwerveInput.aim() to select a target"
+              + " first!");
+    }
+    boolean headingInformation = headingSupplier.isPresent()
+        || (controllerHeadingX.isPresent() && controllerHeadingY.isPresent());
+    if (headingEnabled.isPresent() && !headingInformation) {
+      throw new IllegalStateException(
+          "Heading enabled without heading information, please use"
+              + " CustomSwerveInput.withHeading or CustomSwerveInput.withControllerHeadingAxis!");
+    }
+    if (allianceRelative.orElse(null) == ALWAYS_ENABLED
+        && robotRelative.orElse(null) == ALWAYS_ENABLED) {
+      throw new IllegalStateException(
+          "Cannot use robot oriented control with Alliance aware movement!");
+    }
+
+    if (swerveController == null) {
+      swerveController = swerveDrive.getSwerveController();
+    }
+
+    translationStages = compileTranslationStages();
+    compileModes();
+    robotRelativeTrigger = robotRelative.orElse(null);
     return this;
   }
 
   /**
-   * Find {@link SwerveInputMode} based off existing parameters of the
-   * {@link CustomSwerveInput}
+   * Build the translation stages for the configured features, in order.
    *
-   * @return The calculated {@link SwerveInputMode}, defaults to {@link
-   *         SwerveInputMode#ANGULAR_VELOCITY}.
+   * @return Active translation stages.
    */
-  private SwerveInputMode findMode() {
-    if (driveToPoseEnabled.isPresent() && driveToPoseEnabled.get().getAsBoolean()) {
-      if (driveToPose.isPresent()) {
-        if (driveToPoseOmegaPIDController.isPresent()
-            && driveToPoseXPIDController.isPresent()
-            && driveToPoseYPIDController.isPresent()) {
-          return SwerveInputMode.DRIVE_TO_POSE;
-        }
-        DriverStation.reportError("Drive to pose not supplied with pid controllers.", false);
-      }
-      DriverStation.reportError("Drive to pose enabled without supplier present.", false);
-    } else if (translationOnlyEnabled.isPresent() && translationOnlyEnabled.get().getAsBoolean()) {
-      return SwerveInputMode.TRANSLATION_ONLY;
-    } else if (aimEnabled.isPresent() && aimEnabled.get().getAsBoolean()) {
-      if (aimTarget.isPresent()) {
-        return SwerveInputMode.AIM;
+  private TranslationStage[] compileTranslationStages() {
+    ArrayList<TranslationStage> stages = new ArrayList<>();
+
+    if (axisDeadband != 0) {
+      double deadband = axisDeadband;
+      stages.add(state -> {
+        state.x = MathUtil.applyDeadband(state.x, deadband);
+        state.y = MathUtil.applyDeadband(state.y, deadband);
+      });
+    }
+
+    if (dynamicTranslationScaling.isPresent()) {
+      BooleanSupplier condition = dynamicTranslationScaling.get();
+      double dynamicScale = dynamicTranslationScaleFactor;
+      double scale = translationAxisScale;
+      stages.add(state -> {
+        double factor = condition.getAsBoolean() ? dynamicScale : scale;
+        state.x *= factor;
+        state.y *= factor;
+      });
+    } else if (translationAxisScale != 1.0) {
+      double scale = translationAxisScale;
+      stages.add(state -> {
+        state.x *= scale;
+        state.y *= scale;
+      });
+    }
+
+    if (translationCube.isPresent()) {
+      BooleanSupplier enabled = translationCube.get();
+      if (enabled == ALWAYS_ENABLED) {
+        stages.add(CustomSwerveInput::cubeTranslation);
       } else {
-        DriverStation.reportError(
-            "Attempting to enter AIM mode without target, please use CustomSwerveInput.aim() to"
-                + " select a target first!",
-            false);
+        stages.add(state -> {
+          if (enabled.getAsBoolean()) {
+            cubeTranslation(state);
+          }
+        });
       }
-    } else if (headingEnabled.isPresent() && headingEnabled.get().getAsBoolean()) {
-      if (headingSupplier.isPresent()
-          || (controllerHeadingX.isPresent() && controllerHeadingY.isPresent())) {
-        return SwerveInputMode.HEADING;
-      } else {
-        DriverStation.reportError(
-            "Attempting to enter HEADING mode without heading information, please use"
-                + " CustomSwerveInput.withHeading or CustomSwerveInput.withControllerHeadingAxis!",
-            false);
+    }
+
+    if (allianceRelative.isPresent()) {
+      BooleanSupplier enabled = allianceRelative.get();
+      BooleanSupplier robotRelativeEnabled = robotRelative.orElse(null);
+      MatchState matchState = MatchState.getInstance();
+      stages.add(state -> {
+        if (enabled.getAsBoolean()) {
+          if (robotRelativeEnabled != null && robotRelativeEnabled.getAsBoolean()) {
+            throw new RuntimeException(
+                "Cannot use robot oriented control with Alliance aware movement!");
+          }
+          if (matchState.isRedAlliance()) {
+            state.allianceFlipped = true;
+            state.x = -state.x;
+            state.y = -state.y;
+          }
+        }
+      });
+    }
+
+    return stages.toArray(new TranslationStage[0]);
+  }
+
+  /**
+   * Cube the translation magnitude, same as {@link swervelib.math.SwerveMath#cubeTranslation}
+   * without creating a Translation2d.
+   *
+   * @param state Pipeline state holding the translation axes.
+   */
+  private static void cubeTranslation(PipelineState state) {
+    double norm = Math.hypot(state.x, state.y);
+    if (norm > 1.0E-6) {
+      state.x *= norm * norm;
+      state.y *= norm * norm;
+    }
+  }
+
+  /**
+   * Build the mode candidates and the controller for every reachable
+   * {@link SwerveInputMode}.
+   */
+  private void compileModes() {
+    ArrayList<ModeCandidate> candidates = new ArrayList<>();
+    driveToPoseEnabled.ifPresent(
+        trigger -> candidates.add(new ModeCandidate(trigger, SwerveInputMode.DRIVE_TO_POSE)));
+    translationOnlyEnabled.ifPresent(
+        trigger -> candidates.add(new ModeCandidate(trigger, SwerveInputMode.TRANSLATION_ONLY)));
+    aimEnabled.ifPresent(
+        trigger -> candidates.add(new ModeCandidate(trigger, SwerveInputMode.AIM)));
+    headingEnabled.ifPresent(
+        trigger -> candidates.add(new ModeCandidate(trigger, SwerveInputMode.HEADING)));
+
+    // Anything after an always enabled candidate can never be selected.
+    boolean fallbackReachable = true;
+    for (int i = 0; i < candidates.size(); i++) {
+      if (candidates.get(i).trigger() == ALWAYS_ENABLED) {
+        candidates.subList(i + 1, candidates.size()).clear();
+        fallbackReachable = false;
+        break;
       }
-    } else if (controllerOmega.isEmpty()) {
-      DriverStation.reportError(
-          "Attempting to enter ANGULAR_VELOCITY mode without a rotation axis, please use"
+    }
+    modeCandidates = candidates.toArray(new ModeCandidate[0]);
+
+    fallbackMode = controllerOmega.isPresent()
+        ? SwerveInputMode.ANGULAR_VELOCITY
+        : SwerveInputMode.TRANSLATION_ONLY;
+    if (fallbackReachable && controllerOmega.isEmpty()) {
+      DriverStation.reportWarning(
+          "CustomSwerveInput has no rotation axis, falling back to TRANSLATION_ONLY, please use"
               + " CustomSwerveInput.withControllerRotationAxis to add angular velocity axis!",
           false);
-      return SwerveInputMode.TRANSLATION_ONLY;
     }
-    return SwerveInputMode.ANGULAR_VELOCITY;
+
+    Arrays.fill(modeControllers, null);
+    modeControllers[SwerveInputMode.TRANSLATION_ONLY.ordinal()] = state -> {
+      state.omega = swerveController.headingCalculate(
+          swerveDrive.getOdometryHeading().getRadians(), lockedHeadingRadians);
+    };
+    if (controllerOmega.isPresent()) {
+      modeControllers[SwerveInputMode.ANGULAR_VELOCITY.ordinal()] = compileAngularVelocity();
+    }
+    if (headingEnabled.isPresent()) {
+      modeControllers[SwerveInputMode.HEADING.ordinal()] = compileHeading();
+    }
+    if (aimEnabled.isPresent()) {
+      Pose2d target = aimTarget.get();
+      modeControllers[SwerveInputMode.AIM.ordinal()] = state -> {
+        Pose2d pose = swerveDrive.getPose();
+        state.omega = swerveController.headingCalculate(
+            pose.getRotation().getRadians(),
+            Math.atan2(target.getY() - pose.getY(), target.getX() - pose.getX()));
+      };
+    }
+    if (driveToPoseEnabled.isPresent() && driveToPoseController.isPresent()) {
+      Supplier<Pose2d> targetSupplier = driveToPose.get();
+      DriveToPoseController controller = driveToPoseController.get();
+      modeControllers[SwerveInputMode.DRIVE_TO_POSE.ordinal()] = state -> {
+        controller.calculate(
+            swerveDrive.getPose(), swerveDrive.getFieldVelocity(), targetSupplier.get(), Timer.getFPGATimestamp());
+        state.x = controller.getVx();
+        state.y = controller.getVy();
+        state.omega = controller.getOmega();
+      };
+    } else if (driveToPoseEnabled.isPresent()) {
+      Supplier<Pose2d> targetSupplier = driveToPose.get();
+      ProfiledPIDController xController = driveToPoseXPIDController.get();
+      ProfiledPIDController yController = driveToPoseYPIDController.get();
+      ProfiledPIDController omegaController = driveToPoseOmegaPIDController.get();
+      modeControllers[SwerveInputMode.DRIVE_TO_POSE.ordinal()] = state -> {
+        Pose2d target = targetSupplier.get();
+        Pose2d pose = swerveDrive.getPose();
+        state.omega = omegaController.calculate(
+            pose.getRotation().getRadians(), target.getRotation().getRadians());
+        state.x = xController.calculate(pose.getX(), target.getX());
+        state.y = yController.calculate(pose.getY(), target.getY());
+      };
+    }
+  }
+
+  /**
+   * Build the {@link SwerveInputMode#ANGULAR_VELOCITY} controller.
+   *
+   * @return Angular velocity mode controller.
+   */
+  private ModeController compileAngularVelocity() {
+    DoubleSupplier omega = controllerOmega.get();
+    double deadband = axisDeadband;
+    double scale = omegaAxisScale;
+    BooleanSupplier cube = omegaCube.orElse(null);
+    return state -> {
+      double axis = deadband != 0 ? MathUtil.applyDeadband(omega.getAsDouble(), deadband)
+          : omega.getAsDouble();
+      axis *= scale;
+      if (cube != null && cube.getAsBoolean()) {
+        axis = axis * axis * axis;
+      }
+      state.omega = axis * swerveDrive.getMaximumChassisAngularVelocity();
+    };
+  }
+
+  /**
+   * Build the {@link SwerveInputMode#HEADING} controller.
+   *
+   * @return Heading mode controller.
+   */
+  private ModeController compileHeading() {
+    BooleanSupplier offsetEnabled = headingOffsetEnabled.orElse(null);
+    double offset = headingOffsetPresent ? headingOffsetRadians : 0.0;
+
+    if (headingSupplier.isPresent()) {
+      // Use direct heading supplier without alliance flipping (raw field relative)
+      Supplier<Rotation2d> heading = headingSupplier.get();
+      return state -> {
+        double target = heading.get().getRadians();
+        if (offsetEnabled != null && offsetEnabled.getAsBoolean()) {
+          target += offset;
+        }
+        state.omega = swerveController.headingCalculate(
+            swerveDrive.getOdometryHeading().getRadians(), MathUtil.angleModulus(target));
+      };
+    }
+
+    // Use controller joystick inputs
+    DoubleSupplier headingX = controllerHeadingX.get();
+    DoubleSupplier headingY = controllerHeadingY.get();
+    double deadband = axisDeadband;
+    return state -> {
+      double x = headingX.getAsDouble();
+      double y = headingY.getAsDouble();
+      double target = swerveController.getJoystickAngle(x, y);
+      // Prevent rotation if controller heading inputs are not past axisDeadband
+      if (Math.abs(x) + Math.abs(y) < deadband) {
+        state.omega = 0;
+        return;
+      }
+      if (state.allianceFlipped) {
+        target += Math.PI;
+      }
+      if (offsetEnabled != null && offsetEnabled.getAsBoolean()) {
+        target += offset;
+      }
+      state.omega = swerveController.headingCalculate(
+          swerveDrive.getOdometryHeading().getRadians(), MathUtil.angleModulus(target));
+    };
   }
 
   /**
@@ -677,7 +981,7 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     // Handle removing of current mode.
     switch (currentMode) {
       case TRANSLATION_ONLY -> {
-        lockedHeading = Optional.empty();
+        lockedHeadingRadians = 0.0;
         break;
       }
       case ANGULAR_VELOCITY, HEADING, AIM, DRIVE_TO_POSE -> {
@@ -689,13 +993,16 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
     // Transitioning to new mode
     switch (newMode) {
       case TRANSLATION_ONLY -> {
-        lockedHeading = Optional.of(swerveDrive.getOdometryHeading());
+        lockedHeadingRadians = swerveDrive.getOdometryHeading().getRadians();
         break;
       }
       case ANGULAR_VELOCITY, DRIVE_TO_POSE -> {
         if (swerveDrive.headingCorrection) {
           swerveDrive.setHeadingCorrection(false);
         }
+        if (newMode == SwerveInputMode.DRIVE_TO_POSE) {
+          driveToPoseController.ifPresent(DriveToPoseController::reset);
+        }
         break;
       }
       case HEADING, AIM -> {
@@ -706,246 +1013,114 @@ public class CustomSwerveInput implements Supplier<ChassisSpeeds> {
   }
 
   /**
-   * Apply the deadband if it exists.
+   * Gets a {@link ChassisSpeeds}
    *
-   * @param axisValue Axis value to apply the deadband too.
-   * @return axis value with deadband, else axis value straight.
+   * @return {@link ChassisSpeeds}
    */
-  private double applyDeadband(double axisValue) {
-    if (axisDeadband.isPresent()) {
-      return MathUtil.applyDeadband(axisValue, axisDeadband.get());
-    }
-    return axisValue;
+  @Override
+  public ChassisSpeeds get() {
+    return get(new ChassisSpeeds());
   }
 
   /**
-   * Apply the scalar value if it exists.
+   * Calculates the {@link ChassisSpeeds} for this cycle and writes them into a
+   * caller owned object. Unlike {@link #get()} this does not allocate, so the
+   * same output object can be reused every loop.
    *
-   * @param axisValue Axis value to apply teh scalar too.
-   * @return Axis value scaled by scalar value.
+   * @param output {@link ChassisSpeeds} to overwrite with the result.
+   * @return the output object, for chaining.
    */
-  private double applyRotationalScalar(double axisValue) {
-    if (omegaAxisScale.isPresent()) {
-      return axisValue * omegaAxisScale.get();
+  public ChassisSpeeds get(ChassisSpeeds output) {
+    if (translationStages == null) {
+      freeze();
     }
-    return axisValue;
-  }
 
-  /**
-   * Scale the translational axis by the applicable scalar value.
-   *
-   * @param xAxis X axis value.
-   * @param yAxis Y axis value.
-   * @return Scaled {@link Translation2d}
-   */
-  private Translation2d applyTranslationScalar(double xAxis, double yAxis) {
-    double factor = 1.0;
-    if (dynamicTranslationScaling.isPresent() && dynamicTranslationScaling.get().getAsBoolean()) {
-      factor = dynamicTranslationScaleFactor;
-    } else if (translationAxisScale.isPresent()) {
-      factor = translationAxisScale.get();
+    PipelineState state = this.state;
+    state.x = controllerTranslationX.getAsDouble();
+    state.y = controllerTranslationY.getAsDouble();
+    state.omega = 0;
+    state.allianceFlipped = false;
+    for (TranslationStage stage : translationStages) {
+      stage.apply(state);
     }
-    return SwerveMath.scaleTranslation(new Translation2d(xAxis, yAxis), factor);
-  }
+    double maximumChassisVelocity = swerveDrive.getMaximumChassisVelocity();
+    state.x *= maximumChassisVelocity;
+    state.y *= maximumChassisVelocity;
 
-  /**
-   * Apply the cube transformation on the given {@link Translation2d}
-   *
-   * @param translation {@link Translation2d} representing controller input
-   * @return Cubed {@link Translation2d} if the
-   *         {@link CustomSwerveInput#translationCube} is
-   *         present.
-   */
-  private Translation2d applyTranslationCube(Translation2d translation) {
-    if (translationCube.isPresent() && translationCube.get().getAsBoolean()) {
-      return SwerveMath.cubeTranslation(translation);
+    SwerveInputMode newMode = fallbackMode;
+    for (ModeCandidate candidate : modeCandidates) {
+      if (candidate.trigger().getAsBoolean()) {
+        newMode = candidate.mode();
+        break;
+      }
     }
-    return translation;
-  }
-
-  /**
-   * Apply the cube transformation on the given rotation controller axis
-   *
-   * @param rotationAxis Rotation controller axis to cube.
-   * @return Cubed axis value if the {@link CustomSwerveInput#omegaCube} is
-   *         present.
-   */
-  private double applyOmegaCube(double rotationAxis) {
-    if (omegaCube.isPresent() && omegaCube.get().getAsBoolean()) {
-      return Math.pow(rotationAxis, 3);
+    // Handle transitions here.
+    if (currentMode != newMode) {
+      transitionMode(newMode);
     }
-    return rotationAxis;
-  }
+    modeControllers[newMode.ordinal()].apply(state);
+    currentMode = newMode;
 
-  /**
-   * Change {@link ChassisSpeeds} from robot relative if enabled.
-   *
-   * @param fieldRelativeSpeeds Field or robot relative speeds to translate into
-   *                            robot-relative
-   *                            speeds.
-   * @return Field relative {@link ChassisSpeeds}.
-   */
-  private ChassisSpeeds applyRobotRelativeTranslation(ChassisSpeeds fieldRelativeSpeeds) {
-    if (robotRelative.isPresent() && robotRelative.get().getAsBoolean()) {
-      return ChassisSpeeds.fromRobotRelativeSpeeds(
-          fieldRelativeSpeeds, swerveDrive.getOdometryHeading());
+    // Change from robot relative if enabled.
+    if (robotRelativeTrigger != null && robotRelativeTrigger.getAsBoolean()) {
+      double heading = swerveDrive.getOdometryHeading().getRadians();
+      double cos = Math.cos(heading);
+      double sin = Math.sin(heading);
+      output.vxMetersPerSecond = state.x * cos - state.y * sin;
+      output.vyMetersPerSecond = state.x * sin + state.y * cos;
+    } else {
+      output.vxMetersPerSecond = state.x;
+      output.vyMetersPerSecond = state.y;
     }
-    return fieldRelativeSpeeds;
+    output.omegaRadiansPerSecond = state.omega;
+    return output;
   }
 
   /**
-   * Apply alliance aware translation which flips the {@link Translation2d} if the
-   * robot is on the
-   * Blue alliance.
-   *
-   * @param fieldRelativeTranslation Field-relative {@link Translation2d} to flip.
-   * @return Alliance-oriented {@link Translation2d}
+   * Mutable values passed through the compiled pipeline. Translation stages work
+   * on controller axis values; after them {@link #x} and {@link #y} hold
+   * velocities in m/s.
    */
-  private Translation2d applyAllianceAwareTranslation(Translation2d fieldRelativeTranslation) {
-    if (allianceRelative.isPresent() && allianceRelative.get().getAsBoolean()) {
-      if (robotRelative.isPresent() && robotRelative.get().getAsBoolean()) {
-        throw new RuntimeException(
-            "Cannot use robot oriented control with Alliance aware movement!");
-      }
-      if (DriverStation.getAlliance().isPresent()
-          && DriverStation.getAlliance().get() == Alliance.Red) {
-        return fieldRelativeTranslation.rotateBy(Rotation2d.k180deg);
-      }
-    }
-    return fieldRelativeTranslation;
+  private static final class PipelineState {
+    /** X axis value, then X velocity. */
+    private double x;
+    /** Y axis value, then Y velocity. */
+    private double y;
+    /** Angular velocity in rad/s. */
+    private double omega;
+    /** Whether the translation was flipped for the red alliance this cycle. */
+    private boolean allianceFlipped;
   }
 
-  /**
-   * Apply alliance aware translation which flips the {@link Rotation2d} if the
-   * robot is on the Blue
-   * alliance.
-   *
-   * @param fieldRelativeRotation Field-relative {@link Rotation2d} to flip.
-   * @return Alliance-oriented {@link Rotation2d}
-   */
-  private Rotation2d applyAllianceAwareRotation(Rotation2d fieldRelativeRotation) {
-    if (allianceRelative.isPresent() && allianceRelative.get().getAsBoolean()) {
-      if (robotRelative.isPresent() && robotRelative.get().getAsBoolean()) {
-        throw new RuntimeException(
-            "Cannot use robot oriented control with Alliance aware movement!");
-      }
-      if (DriverStation.getAlliance().isPresent()
-          && DriverStation.getAlliance().get() == Alliance.Red) {
-        return fieldRelativeRotation.rotateBy(Rotation2d.k180deg);
-      }
-    }
-    return fieldRelativeRotation;
+  /** A compiled step of the translation pipeline. */
+  @FunctionalInterface
+  private interface TranslationStage {
+    /**
+     * Apply the stage.
+     *
+     * @param state Pipeline state to modify.
+     */
+    void apply(PipelineState state);
   }
 
-  /**
-   * Adds offset to rotation if one is set.
-   *
-   * @param fieldRelativeRotation Field-relative {@link Rotation2d} to offset
-   * @return Offsetted {@link Rotation2d}
-   */
-  private Rotation2d applyHeadingOffset(Rotation2d fieldRelativeRotation) {
-    if (headingOffsetEnabled.isPresent() && headingOffsetEnabled.get().getAsBoolean()) {
-      if (headingOffset.isPresent()) {
-        return fieldRelativeRotation.rotateBy(headingOffset.get());
-      }
-    }
-    return fieldRelativeRotation;
+  /** A compiled controller for a single {@link SwerveInputMode}. */
+  @FunctionalInterface
+  private interface ModeController {
+    /**
+     * Calculate the output of the mode.
+     *
+     * @param state Pipeline state holding the translation velocities.
+     */
+    void apply(PipelineState state);
   }
 
   /**
-   * Gets a {@link ChassisSpeeds}
+   * A mode that becomes active while its trigger is true.
    *
-   * @return {@link ChassisSpeeds}
+   * @param trigger Enable state of the mode.
+   * @param mode    Mode to select.
    */
-  @Override
-  public ChassisSpeeds get() {
-    double maximumChassisVelocity = swerveDrive.getMaximumChassisVelocity();
-    Translation2d scaledTranslation = applyTranslationScalar(
-        applyDeadband(controllerTranslationX.getAsDouble()),
-        applyDeadband(controllerTranslationY.getAsDouble()));
-    scaledTranslation = applyTranslationCube(scaledTranslation);
-    scaledTranslation = applyAllianceAwareTranslation(scaledTranslation);
-
-    double vxMetersPerSecond = scaledTranslation.getX() * maximumChassisVelocity;
-    double vyMetersPerSecond = scaledTranslation.getY() * maximumChassisVelocity;
-    double omegaRadiansPerSecond = 0;
-    ChassisSpeeds speeds = new ChassisSpeeds();
-
-    SwerveInputMode newMode = findMode();
-    // Handle transitions here.
-    if (currentMode != newMode) {
-      transitionMode(newMode);
-    }
-    if (swerveController == null) {
-      swerveController = swerveDrive.getSwerveController();
-    }
-
-    switch (newMode) {
-      case TRANSLATION_ONLY -> {
-        omegaRadiansPerSecond = swerveController.headingCalculate(
-            swerveDrive.getOdometryHeading().getRadians(), lockedHeading.get().getRadians());
-        speeds = new ChassisSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
-        break;
-      }
-      case ANGULAR_VELOCITY -> {
-        omegaRadiansPerSecond = applyOmegaCube(
-            applyRotationalScalar(applyDeadband(controllerOmega.get().getAsDouble())))
-            * swerveDrive.getMaximumChassisAngularVelocity();
-        speeds = new ChassisSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
-        break;
-      }
-      case HEADING -> {
-        if (headingSupplier.isPresent()) {
-          // Use direct heading supplier without alliance flipping (raw field relative)
-          Rotation2d targetHeading = applyHeadingOffset(headingSupplier.get().get());
-          omegaRadiansPerSecond = swerveController.headingCalculate(
-              swerveDrive.getOdometryHeading().getRadians(), targetHeading.getRadians());
-        } else {
-          // Use controller joystick inputs
-          omegaRadiansPerSecond = swerveController.headingCalculate(
-              swerveDrive.getOdometryHeading().getRadians(),
-              applyHeadingOffset(
-                  applyAllianceAwareRotation(
-                      Rotation2d.fromRadians(
-                          swerveController.getJoystickAngle(
-                              controllerHeadingX.get().getAsDouble(),
-                              controllerHeadingY.get().getAsDouble()))))
-                  .getRadians());
-
-          // Prevent rotation if controller heading inputs are not past axisDeadband
-          if (Math.abs(controllerHeadingX.get().getAsDouble())
-              + Math.abs(controllerHeadingY.get().getAsDouble()) < axisDeadband.get()) {
-            omegaRadiansPerSecond = 0;
-          }
-        }
-
-        speeds = new ChassisSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
-        break;
-      }
-      case AIM -> {
-        Rotation2d currentHeading = swerveDrive.getOdometryHeading();
-        Translation2d relativeTrl = aimTarget.get().relativeTo(swerveDrive.getPose()).getTranslation();
-        Rotation2d target = new Rotation2d(relativeTrl.getX(), relativeTrl.getY()).plus(currentHeading);
-        omegaRadiansPerSecond = swerveController.headingCalculate(currentHeading.getRadians(), target.getRadians());
-        speeds = new ChassisSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
-        break;
-      }
-      case DRIVE_TO_POSE -> {
-        Pose2d target = driveToPose.get().get();
-        Pose2d pose = swerveDrive.getPose();
-        omegaRadiansPerSecond = driveToPoseOmegaPIDController
-            .get()
-            .calculate(pose.getRotation().getRadians(), target.getRotation().getRadians());
-        speeds = new ChassisSpeeds(
-            driveToPoseXPIDController.get().calculate(pose.getX(), target.getX()),
-            driveToPoseYPIDController.get().calculate(pose.getY(), target.getY()),
-            omegaRadiansPerSecond);
-      }
-    }
-
-    currentMode = newMode;
-
-    return applyRobotRelativeTranslation(speeds);
+  private record ModeCandidate(BooleanSupplier trigger, SwerveInputMode mode) {
   }
 
   /** Drive modes to keep track of. */
@@ -0,0 +1,124 @@
+package frc.robot.helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free single-producer, single-consumer queue of fixed-width
+ * records of doubles. Used to hand results from a background thread to the
+ * main loop without locks or garbage. When the queue is full new records are
+ * dropped and counted, so the producer never waits.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * DoubleRecordQueue queue = new DoubleRecordQueue(16, 3);
+ *
+ * // Background thread
+ * queue.offer(new double[] { x, y, timestamp });
+ *
+ * // Main loop
+ * double[] record = new double[3];
+ * while (queue.poll(record)) {
+ *   // use record
+ * }
+ * }</pre>
+ */
+public final class DoubleRecordQueue {
+  /** Queue capacity, a power of two. */
+  private final int capacity;
+
+  /** Mask turning a sequence number into a slot index. */
+  private final int mask;
+
+  /** Number of doubles in each record. */
+  private final int width;
+
+  /** Record storage, {@link #width} doubles per slot. */
+  private final double[] records;
+
+  /** Sequence number of the next slot to write, only advanced by the producer. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** Sequence number of the next slot to read, only advanced by the consumer. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Number of records dropped because the queue was full. */
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Creates a new queue.
+   *
+   * @param capacity Number of records the queue can hold, must be a power of
+   *                 two.
+   * @param width    Number of doubles in each record.
+   */
+  public DoubleRecordQueue(int capacity, int width) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Queue capacity must be a power of two");
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.width = width;
+    records = new double[capacity * width];
+  }
+
+  /**
+   * Add a record. Must only be called from the producer thread.
+   *
+   * @param record Record to copy in, at least {@link #getWidth()} long.
+   * @return False if the queue was full and the record was dropped.
+   */
+  public boolean offer(double[] record) {
+    long sequence = head.get();
+    if (sequence - tail.get() >= capacity) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    System.arraycopy(record, 0, records, (int) (sequence & mask) * width, width);
+    // Publish the slot to the consumer.
+    head.lazySet(sequence + 1);
+    return true;
+  }
+
+  /**
+   * Remove the oldest record. Must only be called from the consumer thread.
+   *
+   * @param out Array to copy the record into, at least {@link #getWidth()}
+   *            long.
+   * @return False if the queue was empty.
+   */
+  public boolean poll(double[] out) {
+    long sequence = tail.get();
+    if (sequence >= head.get()) {
+      return false;
+    }
+    System.arraycopy(records, (int) (sequence & mask) * width, out, 0, width);
+    // Hand the slot back to the producer.
+    tail.lazySet(sequence + 1);
+    return true;
+  }
+
+  /** Discard every queued record. Must only be called from the consumer thread. */
+  public void clear() {
+    tail.lazySet(head.get());
+  }
+
+  /**
+   * Get the number of doubles in each record.
+   *
+   * @return The record width.
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Get the number of records dropped because the queue was full.
+   *
+   * @return The dropped record count.
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+}
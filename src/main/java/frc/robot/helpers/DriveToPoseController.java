@@ -0,0 +1,405 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Drives a holonomic robot to a pose along one straight line. The translation
+ * follows a single trapezoidal profile along the line to the goal, limited by
+ * the combined speed and acceleration of the robot rather than per axis, and
+ * the rotation follows its own profile slowed down to end at the same time.
+ * The profile velocities are the feedforward, plus a proportional correction
+ * of the error to the profile setpoint.
+ *
+ * <p>
+ * The profiles are planned from the measured pose and velocity when the
+ * controller starts, after a pause of more than {@link #RESTART_SECONDS}, and
+ * whenever the goal moves, then followed by time. Nothing is allocated after
+ * construction.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * DriveToPoseController controller = new DriveToPoseController(4.0, 4.0, 2 * Math.PI, 4 * Math.PI, 4.0, 4.0);
+ * controller.calculate(pose, fieldVelocity, goal, Timer.getFPGATimestamp());
+ * drive.driveFieldOriented(new ChassisSpeeds(controller.getVx(), controller.getVy(), controller.getOmega()));
+ * }</pre>
+ */
+public final class DriveToPoseController {
+  /** Pause after which the controller starts over from the measured state, in seconds. */
+  public static final double RESTART_SECONDS = 0.1;
+
+  /** Distance the goal may move without planning again, in meters. */
+  private static final double GOAL_TOLERANCE_METERS = 0.01;
+
+  /** Rotation the goal may turn without planning again, in radians. */
+  private static final double GOAL_TOLERANCE_RADIANS = 0.01;
+
+  /**
+   * Time ahead of the measurement at which the profiles are sampled, one loop,
+   * so the robot is commanded towards where it should be next.
+   */
+  private static final double LOOKAHEAD_SECONDS = 0.02;
+
+  /** Iterations of the search for the slow-down of the faster profile. */
+  private static final int SYNC_ITERATIONS = 24;
+
+  private final double maxVelocity;
+  private final double maxAcceleration;
+  private final double maxAngularVelocity;
+  private final double maxAngularAcceleration;
+  private final double translationKp;
+  private final double rotationKp;
+
+  /** Profile of the distance along the line. */
+  private final Profile translation = new Profile();
+
+  /** Profile of the rotation magnitude. */
+  private final Profile rotation = new Profile();
+
+  /** Planned start and direction of the line. */
+  private double startX;
+  private double startY;
+  private double directionX;
+  private double directionY;
+
+  /** Planned start heading and direction of the turn, 1 or -1. */
+  private double startHeading;
+  private double turnSign;
+
+  /** Goal the profiles were planned to. */
+  private double goalX = Double.NaN;
+  private double goalY = Double.NaN;
+  private double goalHeading = Double.NaN;
+
+  /** Time the profiles were planned at, in seconds. */
+  private double planTimestamp = 0.0;
+
+  /** Time of the last call, NaN before the first. */
+  private double lastTimestamp = Double.NaN;
+
+  /** Output field relative velocities. */
+  private double vx = 0.0;
+  private double vy = 0.0;
+  private double omega = 0.0;
+
+  /**
+   * Create a controller.
+   *
+   * @param maxVelocity            Largest translation speed in m/s.
+   * @param maxAcceleration        Largest translation acceleration in m/s^2.
+   * @param maxAngularVelocity     Largest angular velocity in rad/s.
+   * @param maxAngularAcceleration Largest angular acceleration in rad/s^2.
+   * @param translationKp          Gain on the position error, in m/s per m.
+   * @param rotationKp             Gain on the heading error, in rad/s per rad.
+   */
+  public DriveToPoseController(
+      double maxVelocity,
+      double maxAcceleration,
+      double maxAngularVelocity,
+      double maxAngularAcceleration,
+      double translationKp,
+      double rotationKp) {
+    this.maxVelocity = maxVelocity;
+    this.maxAcceleration = maxAcceleration;
+    this.maxAngularVelocity = maxAngularVelocity;
+    this.maxAngularAcceleration = maxAngularAcceleration;
+    this.translationKp = translationKp;
+    this.rotationKp = rotationKp;
+  }
+
+  /** Start over from the measured state on the next call. */
+  public void reset() {
+    lastTimestamp = Double.NaN;
+  }
+
+  /**
+   * Calculate the field relative velocities for this cycle, read with
+   * {@link #getVx()}, {@link #getVy()} and {@link #getOmega()}.
+   *
+   * @param pose          Measured pose.
+   * @param fieldVelocity Measured field relative velocity.
+   * @param goal          Pose to reach.
+   * @param timestamp     Current time in seconds.
+   */
+  public void calculate(Pose2d pose, ChassisSpeeds fieldVelocity, Pose2d goal, double timestamp) {
+    calculate(
+        pose.getX(), pose.getY(), pose.getRotation().getRadians(),
+        fieldVelocity.vxMetersPerSecond, fieldVelocity.vyMetersPerSecond, fieldVelocity.omegaRadiansPerSecond,
+        goal.getX(), goal.getY(), goal.getRotation().getRadians(),
+        timestamp);
+  }
+
+  /**
+   * Calculate the field relative velocities for this cycle from primitives.
+   *
+   * @param x             Measured X in meters.
+   * @param y             Measured Y in meters.
+   * @param heading       Measured heading in radians.
+   * @param measuredVx    Measured field relative X velocity in m/s.
+   * @param measuredVy    Measured field relative Y velocity in m/s.
+   * @param measuredOmega Measured angular velocity in rad/s.
+   * @param targetX       Goal X in meters.
+   * @param targetY       Goal Y in meters.
+   * @param targetHeading Goal heading in radians.
+   * @param timestamp     Current time in seconds.
+   */
+  public void calculate(
+      double x, double y, double heading,
+      double measuredVx, double measuredVy, double measuredOmega,
+      double targetX, double targetY, double targetHeading,
+      double timestamp) {
+    if (!(timestamp - lastTimestamp <= RESTART_SECONDS)
+        || Math.hypot(targetX - goalX, targetY - goalY) > GOAL_TOLERANCE_METERS
+        || Math.abs(MathUtil.angleModulus(targetHeading - goalHeading)) > GOAL_TOLERANCE_RADIANS) {
+      plan(x, y, heading, measuredVx, measuredVy, measuredOmega, targetX, targetY, targetHeading);
+      planTimestamp = timestamp;
+    }
+    lastTimestamp = timestamp;
+
+    double time = timestamp - planTimestamp + LOOKAHEAD_SECONDS;
+    translation.sample(time);
+    rotation.sample(time);
+
+    double setpointX = startX + directionX * translation.position;
+    double setpointY = startY + directionY * translation.position;
+    double setpointHeading = startHeading + turnSign * rotation.position;
+    vx = directionX * translation.velocity + translationKp * (setpointX - x);
+    vy = directionY * translation.velocity + translationKp * (setpointY - y);
+    omega = turnSign * rotation.velocity + rotationKp * MathUtil.angleModulus(setpointHeading - heading);
+  }
+
+  /**
+   * Plan both profiles from the measured state and slow the faster down so
+   * they end together.
+   *
+   * @param x             Measured X in meters.
+   * @param y             Measured Y in meters.
+   * @param heading       Measured heading in radians.
+   * @param measuredVx    Measured field relative X velocity in m/s.
+   * @param measuredVy    Measured field relative Y velocity in m/s.
+   * @param measuredOmega Measured angular velocity in rad/s.
+   * @param targetX       Goal X in meters.
+   * @param targetY       Goal Y in meters.
+   * @param targetHeading Goal heading in radians.
+   */
+  private void plan(
+      double x, double y, double heading,
+      double measuredVx, double measuredVy, double measuredOmega,
+      double targetX, double targetY, double targetHeading) {
+    goalX = targetX;
+    goalY = targetY;
+    goalHeading = targetHeading;
+    startX = x;
+    startY = y;
+    startHeading = heading;
+
+    double distance = Math.hypot(targetX - x, targetY - y);
+    directionX = distance > 1.0e-9 ? (targetX - x) / distance : 0.0;
+    directionY = distance > 1.0e-9 ? (targetY - y) / distance : 0.0;
+    // Only the velocity along the line carries over, the error to the side is
+    // left to the feedback.
+    double speed = measuredVx * directionX + measuredVy * directionY;
+
+    double turn = MathUtil.angleModulus(targetHeading - heading);
+    turnSign = turn < 0.0 ? -1.0 : 1.0;
+    double angularSpeed = measuredOmega * turnSign;
+
+    translation.plan(distance, speed, maxVelocity, maxAcceleration);
+    rotation.plan(Math.abs(turn), angularSpeed, maxAngularVelocity, maxAngularAcceleration);
+    if (translation.totalTime > rotation.totalTime) {
+      rotation.stretch(translation.totalTime, Math.abs(turn), angularSpeed, maxAngularVelocity,
+          maxAngularAcceleration);
+    } else if (rotation.totalTime > translation.totalTime) {
+      translation.stretch(rotation.totalTime, distance, speed, maxVelocity, maxAcceleration);
+    }
+  }
+
+  /**
+   * Get the field relative X velocity of the last calculation.
+   *
+   * @return The velocity in m/s.
+   */
+  public double getVx() {
+    return vx;
+  }
+
+  /**
+   * Get the field relative Y velocity of the last calculation.
+   *
+   * @return The velocity in m/s.
+   */
+  public double getVy() {
+    return vy;
+  }
+
+  /**
+   * Get the angular velocity of the last calculation.
+   *
+   * @return The velocity in rad/s.
+   */
+  public double getOmega() {
+    return omega;
+  }
+
+  /**
+   * Get the duration of the current plan, the same for both profiles.
+   *
+   * @return The duration in seconds.
+   */
+  public double getTotalTime() {
+    return Math.max(translation.totalTime, rotation.totalTime);
+  }
+
+  /**
+   * Trapezoidal profile over a distance from any initial velocity, ending at
+   * rest on the distance. Made of constant acceleration segments: braking if
+   * moving away, stopping past the end and coming back if too fast to stop,
+   * then accelerating, cruising and decelerating.
+   */
+  private static final class Profile {
+    /** Most segments a plan can have. */
+    private static final int MAX_SEGMENTS = 6;
+
+    private final double[] durations = new double[MAX_SEGMENTS];
+    private final double[] startPositions = new double[MAX_SEGMENTS];
+    private final double[] startVelocities = new double[MAX_SEGMENTS];
+    private final double[] accelerations = new double[MAX_SEGMENTS];
+    private int segmentCount = 0;
+
+    /** Duration of the plan in seconds. */
+    private double totalTime = 0.0;
+
+    /** State at the end of the last segment while planning. */
+    private double endPosition = 0.0;
+    private double endVelocity = 0.0;
+
+    /** Sampled state. */
+    private double position = 0.0;
+    private double velocity = 0.0;
+
+    /**
+     * Plan the profile.
+     *
+     * @param distance        Distance to cover, not negative.
+     * @param initialVelocity Velocity at the start, positive towards the end.
+     * @param maxVelocity     Largest velocity.
+     * @param maxAcceleration Largest acceleration.
+     */
+    void plan(double distance, double initialVelocity, double maxVelocity, double maxAcceleration) {
+      segmentCount = 0;
+      totalTime = 0.0;
+      endPosition = 0.0;
+      endVelocity = initialVelocity;
+
+      if (endVelocity < 0.0) {
+        add(-endVelocity / maxAcceleration, maxAcceleration);
+      }
+      if (endVelocity * endVelocity / (2.0 * maxAcceleration) > distance - endPosition) {
+        add(endVelocity / maxAcceleration, -maxAcceleration);
+        approach(endPosition - distance, -1.0, maxVelocity, maxAcceleration);
+      } else {
+        approach(distance - endPosition, 1.0, maxVelocity, maxAcceleration);
+      }
+    }
+
+    /**
+     * Plan the profile with the velocity and acceleration scaled down so it
+     * lasts a given time. The scale is searched by bisection, as the duration
+     * falls as the scale grows.
+     *
+     * @param duration        Time the profile should last, not below its fastest.
+     * @param distance        Distance to cover, not negative.
+     * @param initialVelocity Velocity at the start, positive towards the end.
+     * @param maxVelocity     Largest velocity.
+     * @param maxAcceleration Largest acceleration.
+     */
+    void stretch(double duration, double distance, double initialVelocity, double maxVelocity,
+        double maxAcceleration) {
+      if (distance == 0.0 && initialVelocity == 0.0) {
+        return;
+      }
+      double low = 0.0;
+      double high = 1.0;
+      for (int i = 0; i < SYNC_ITERATIONS; i++) {
+        double scale = 0.5 * (low + high);
+        plan(distance, initialVelocity, scale * maxVelocity, scale * scale * maxAcceleration);
+        if (totalTime > duration) {
+          low = scale;
+        } else {
+          high = scale;
+        }
+      }
+      plan(distance, initialVelocity, high * maxVelocity, high * high * maxAcceleration);
+    }
+
+    /**
+     * Add the segments reaching the end from the current end state, with a
+     * velocity towards it that it can stop from.
+     *
+     * @param distance        Distance left, not negative.
+     * @param sign            Direction of the end, 1 or -1.
+     * @param maxVelocity     Largest velocity.
+     * @param maxAcceleration Largest acceleration.
+     */
+    private void approach(double distance, double sign, double maxVelocity, double maxAcceleration) {
+      double speed = endVelocity * sign;
+      if (speed > maxVelocity) {
+        add((speed - maxVelocity) / maxAcceleration, -sign * maxAcceleration);
+        distance -= (speed * speed - maxVelocity * maxVelocity) / (2.0 * maxAcceleration);
+        speed = maxVelocity;
+      }
+      double peak = Math.max(speed,
+          Math.min(maxVelocity, Math.sqrt(maxAcceleration * distance + 0.5 * speed * speed)));
+      add((peak - speed) / maxAcceleration, sign * maxAcceleration);
+      double cruise = distance - (peak * peak - speed * speed) / (2.0 * maxAcceleration)
+          - peak * peak / (2.0 * maxAcceleration);
+      if (cruise > 0.0 && peak > 0.0) {
+        add(cruise / peak, 0.0);
+      }
+      add(peak / maxAcceleration, -sign * maxAcceleration);
+    }
+
+    /**
+     * Add a constant acceleration segment to the plan.
+     *
+     * @param duration     Length of the segment in seconds.
+     * @param acceleration Acceleration over the segment.
+     */
+    private void add(double duration, double acceleration) {
+      if (duration <= 0.0) {
+        return;
+      }
+      durations[segmentCount] = duration;
+      startPositions[segmentCount] = endPosition;
+      startVelocities[segmentCount] = endVelocity;
+      accelerations[segmentCount] = acceleration;
+      segmentCount++;
+      endPosition += endVelocity * duration + 0.5 * acceleration * duration * duration;
+      endVelocity += acceleration * duration;
+      totalTime += duration;
+    }
+
+    /**
+     * Sample the profile into {@link #position} and {@link #velocity}. Past the
+     * end it holds the end at rest.
+     *
+     * @param time Time since the start in seconds.
+     */
+    void sample(double time) {
+      for (int i = 0; i < segmentCount; i++) {
+        if (time <= durations[i]) {
+          double t = Math.max(time, 0.0);
+          position = startPositions[i] + startVelocities[i] * t + 0.5 * accelerations[i] * t * t;
+          velocity = startVelocities[i] + accelerations[i] * t;
+          return;
+        }
+        time -= durations[i];
+      }
+      position = endPosition;
+      velocity = 0.0;
+    }
+  }
+}
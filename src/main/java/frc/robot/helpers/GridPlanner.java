@@ -0,0 +1,331 @@
+package frc.robot.helpers;
+
+import java.util.Arrays;
+
+/**
+ * A* over an {@link OccupancyGrid}, moving between the eight neighbors of a
+ * cell. The search state lives in arrays sized to the grid and is reused, so a
+ * planner allocates only the returned path. A planner is not thread safe, keep
+ * one per thread.
+ *
+ * <p>
+ * The cell path is shortened to its corners by keeping only the cells the
+ * robot cannot drive straight past. When the start or the goal is inside a
+ * blocked cell, as a scoring pose against the reef is, the search runs from the
+ * nearest free cell and the path still begins and ends on the exact points.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * GridPlanner planner = new GridPlanner(OccupancyGrid.getInstance());
+ * double[] path = planner.plan(1.5, 4.0, 7.0, 4.0); // x0, y0, x1, y1, ...
+ * }</pre>
+ */
+public final class GridPlanner {
+  /** Column offsets of the neighbors. */
+  private static final int[] NEIGHBOR_COLUMNS = { 1, -1, 0, 0, 1, 1, -1, -1 };
+
+  /** Row offsets of the neighbors. */
+  private static final int[] NEIGHBOR_ROWS = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+  /** Step costs of the neighbors, in cells. */
+  private static final double[] NEIGHBOR_COSTS = {
+      1.0, 1.0, 1.0, 1.0, Math.sqrt(2), Math.sqrt(2), Math.sqrt(2), Math.sqrt(2) };
+
+  private final OccupancyGrid grid;
+  private final int columns;
+  private final int rows;
+
+  /** Cost from the start of each cell, valid when its stamp is current. */
+  private final double[] costs;
+
+  /** Previous cell on the best path to each cell. */
+  private final int[] parents;
+
+  /** Search during which each cell was last reached. */
+  private final int[] reached;
+
+  /** Search during which each cell was last expanded. */
+  private final int[] expanded;
+
+  /** Open cells as a binary heap, with their priorities. */
+  private int[] heap;
+  private double[] heapPriorities;
+  private int heapSize = 0;
+
+  /** Queue of the nearest free cell search. */
+  private final int[] queue;
+
+  /** Cells of the last path, goal first. */
+  private final int[] cellPath;
+
+  /** Current search, stamps from older searches are stale. */
+  private int search = 0;
+
+  /** Cells expanded by the last search. */
+  private int expandedCount = 0;
+
+  /**
+   * Create a planner for a grid.
+   *
+   * @param grid Grid to plan on.
+   */
+  public GridPlanner(OccupancyGrid grid) {
+    this.grid = grid;
+    columns = grid.getColumns();
+    rows = grid.getRows();
+    int cells = grid.getCellCount();
+    costs = new double[cells];
+    parents = new int[cells];
+    reached = new int[cells];
+    expanded = new int[cells];
+    heap = new int[cells];
+    heapPriorities = new double[cells];
+    queue = new int[cells];
+    cellPath = new int[cells];
+  }
+
+  /**
+   * Plan a path between two points.
+   *
+   * @param startX Start X in meters.
+   * @param startY Start Y in meters.
+   * @param goalX  Goal X in meters.
+   * @param goalY  Goal Y in meters.
+   * @return The corners of the path as x, y pairs, from the start to the goal
+   *         included, or null if the goal cannot be reached.
+   */
+  public double[] plan(double startX, double startY, double goalX, double goalY) {
+    expandedCount = 0;
+    if (grid.hasLineOfSight(startX, startY, goalX, goalY)) {
+      return new double[] { startX, startY, goalX, goalY };
+    }
+
+    int start = nearestFree(grid.cellAt(startX, startY));
+    int goal = nearestFree(grid.cellAt(goalX, goalY));
+    if (start < 0 || goal < 0 || !search(start, goal)) {
+      return null;
+    }
+
+    int length = 0;
+    for (int cell = goal; cell != start; cell = parents[cell]) {
+      cellPath[length++] = cell;
+    }
+    cellPath[length++] = start;
+    return corners(length, startX, startY, goalX, goalY);
+  }
+
+  /**
+   * Get the number of cells expanded by the last plan.
+   *
+   * @return The number of cells.
+   */
+  public int getExpandedCount() {
+    return expandedCount;
+  }
+
+  /**
+   * Run A* between two free cells.
+   *
+   * @param start Start cell.
+   * @param goal  Goal cell.
+   * @return Whether the goal was reached, the path then follows the parents.
+   */
+  private boolean search(int start, int goal) {
+    search++;
+    heapSize = 0;
+    int goalColumn = goal % columns;
+    int goalRow = goal / columns;
+
+    costs[start] = 0.0;
+    reached[start] = search;
+    push(start, heuristic(start, goalColumn, goalRow));
+    while (heapSize > 0) {
+      int cell = pop();
+      if (expanded[cell] == search) {
+        continue;
+      }
+      expanded[cell] = search;
+      expandedCount++;
+      if (cell == goal) {
+        return true;
+      }
+
+      int column = cell % columns;
+      int row = cell / columns;
+      for (int i = 0; i < NEIGHBOR_COSTS.length; i++) {
+        int nextColumn = column + NEIGHBOR_COLUMNS[i];
+        int nextRow = row + NEIGHBOR_ROWS[i];
+        if (nextColumn < 0 || nextColumn >= columns || nextRow < 0 || nextRow >= rows) {
+          continue;
+        }
+        int next = nextRow * columns + nextColumn;
+        // Diagonal moves may not cut the corner of a blocked cell.
+        if (grid.isBlocked(next) || expanded[next] == search
+            || grid.isBlocked(row * columns + nextColumn) || grid.isBlocked(nextRow * columns + column)) {
+          continue;
+        }
+        double cost = costs[cell] + NEIGHBOR_COSTS[i];
+        if (reached[next] != search || cost < costs[next]) {
+          reached[next] = search;
+          costs[next] = cost;
+          parents[next] = cell;
+          push(next, cost + heuristic(next, goalColumn, goalRow));
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Octile distance from a cell to the goal, exact on an empty grid.
+   *
+   * @param cell       Cell index.
+   * @param goalColumn Column of the goal.
+   * @param goalRow    Row of the goal.
+   * @return The distance in cells.
+   */
+  private double heuristic(int cell, int goalColumn, int goalRow) {
+    int dx = Math.abs(cell % columns - goalColumn);
+    int dy = Math.abs(cell / columns - goalRow);
+    return Math.max(dx, dy) + (Math.sqrt(2) - 1.0) * Math.min(dx, dy);
+  }
+
+  /**
+   * Find the free cell nearest to a cell, searching outwards over the blocked
+   * ones.
+   *
+   * @param cell Cell to start from.
+   * @return The nearest free cell, or -1 if there is none.
+   */
+  private int nearestFree(int cell) {
+    if (!grid.isBlocked(cell)) {
+      return cell;
+    }
+    search++;
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = cell;
+    reached[cell] = search;
+    while (head < tail) {
+      int current = queue[head++];
+      if (!grid.isBlocked(current)) {
+        return current;
+      }
+      int column = current % columns;
+      int row = current / columns;
+      for (int i = 0; i < 4; i++) {
+        int nextColumn = column + NEIGHBOR_COLUMNS[i];
+        int nextRow = row + NEIGHBOR_ROWS[i];
+        if (nextColumn < 0 || nextColumn >= columns || nextRow < 0 || nextRow >= rows) {
+          continue;
+        }
+        int next = nextRow * columns + nextColumn;
+        if (reached[next] != search) {
+          reached[next] = search;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Shorten a cell path to the cells where it has to turn.
+   *
+   * @param length Number of cells in {@link #cellPath}.
+   * @param startX Exact start X in meters.
+   * @param startY Exact start Y in meters.
+   * @param goalX  Exact goal X in meters.
+   * @param goalY  Exact goal Y in meters.
+   * @return The corners as x, y pairs.
+   */
+  private double[] corners(int length, double startX, double startY, double goalX, double goalY) {
+    double[] path = new double[2 * (length + 2)];
+    path[0] = startX;
+    path[1] = startY;
+    int points = 1;
+
+    // The path walks from the start, cellPath runs from the goal.
+    double anchorX = startX;
+    double anchorY = startY;
+    for (int i = length - 1; i >= 0; i--) {
+      int cell = cellPath[i];
+      int previous = i + 1 < length ? cellPath[i + 1] : -1;
+      if (previous >= 0
+          && !grid.hasLineOfSight(anchorX, anchorY, grid.centerX(cell), grid.centerY(cell))) {
+        anchorX = grid.centerX(previous);
+        anchorY = grid.centerY(previous);
+        path[2 * points] = anchorX;
+        path[2 * points + 1] = anchorY;
+        points++;
+      }
+    }
+    if (!grid.hasLineOfSight(anchorX, anchorY, goalX, goalY)) {
+      path[2 * points] = grid.centerX(cellPath[0]);
+      path[2 * points + 1] = grid.centerY(cellPath[0]);
+      points++;
+    }
+    path[2 * points] = goalX;
+    path[2 * points + 1] = goalY;
+    points++;
+    return Arrays.copyOf(path, 2 * points);
+  }
+
+  /**
+   * Add a cell to the open heap.
+   *
+   * @param cell     Cell index.
+   * @param priority Estimated total cost through the cell.
+   */
+  private void push(int cell, double priority) {
+    if (heapSize == heap.length) {
+      heap = Arrays.copyOf(heap, heap.length * 2);
+      heapPriorities = Arrays.copyOf(heapPriorities, heapPriorities.length * 2);
+    }
+    int index = heapSize++;
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (heapPriorities[parent] <= priority) {
+        break;
+      }
+      heap[index] = heap[parent];
+      heapPriorities[index] = heapPriorities[parent];
+      index = parent;
+    }
+    heap[index] = cell;
+    heapPriorities[index] = priority;
+  }
+
+  /**
+   * Remove the open cell with the lowest priority.
+   *
+   * @return The cell index.
+   */
+  private int pop() {
+    int top = heap[0];
+    heapSize--;
+    int cell = heap[heapSize];
+    double priority = heapPriorities[heapSize];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && heapPriorities[child + 1] < heapPriorities[child]) {
+        child++;
+      }
+      if (heapPriorities[child] >= priority) {
+        break;
+      }
+      heap[index] = heap[child];
+      heapPriorities[index] = heapPriorities[child];
+      index = child;
+    }
+    heap[index] = cell;
+    heapPriorities[index] = priority;
+    return top;
+  }
+}
@@ -0,0 +1,300 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.DriveToPoseConstants;
+import frc.robot.Constants.OIConstants;
+import frc.robot.Constants.WarmupConstants;
+import frc.robot.subsystems.Swerve;
+import swervelib.SwerveDrive;
+import swervelib.SwerveModule;
+
+/**
+ * Runs the drive hot paths with synthetic input while the robot is disabled, so
+ * the JIT compiles them before the first enabled cycle. Each iteration
+ * evaluates a {@link CustomSwerveInput} built like the driver's, cycling
+ * through every input mode, turns the result into module states through the
+ * same kinematics code YAGSL uses, and steps a command composition.
+ *
+ * <p>
+ * Nothing is sent to the hardware. The kinematics are a private copy of the
+ * drive's, the command composition requires no subsystem and is not
+ * scheduled, and the shared heading controller is reset after every cycle.
+ *
+ * <p>
+ * Warm-up finishes once enough iterations ran and the cost of an iteration has
+ * held steady for a while, which is when the compiled code is in use. Progress
+ * is published under {@code Robot/Warmup} and the end is written to the log.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * // In Robot.disabledPeriodic()
+ * JitWarmup.getInstance().periodic();
+ * }</pre>
+ */
+public final class JitWarmup {
+  /** Singleton instance. */
+  private static JitWarmup instance;
+
+  /**
+   * Gets the singleton instance of the JIT warm-up.
+   *
+   * @return The singleton instance.
+   */
+  public static JitWarmup getInstance() {
+    if (instance == null) {
+      instance = new JitWarmup();
+    }
+    return instance;
+  }
+
+  /** Number of input modes the synthetic input cycles through. */
+  private static final int MODE_COUNT = 5;
+
+  /** Iterations spent in each input mode before switching. */
+  private static final int MODE_ITERATIONS = 8;
+
+  /** Iterations run between checks of the cycle budget. */
+  private static final int BATCH_ITERATIONS = 32;
+
+  /** Target of the aim and drive to pose modes. */
+  private static final Pose2d TARGET = new Pose2d(4.489, 4.026, Rotation2d.kZero);
+
+  private final Swerve swerve = Swerve.getInstance();
+  private final SwerveDrive drive = swerve.getSwerveDrive();
+
+  /** Input stream like the driver's, with every mode switched by {@link #mode}. */
+  private final CustomSwerveInput input;
+
+  /** Copy of the drive kinematics, so the drive's module headings are untouched. */
+  private final SwerveDriveKinematics kinematics;
+
+  /** Composition stepped by hand, never scheduled. */
+  private final Command composition;
+
+  /** Reused input stream output. */
+  private final ChassisSpeeds speeds = new ChassisSpeeds();
+
+  /** Scratch module speeds. */
+  private final double[] moduleSpeeds;
+
+  /** Scratch module angles. */
+  private final double[] moduleAngles;
+
+  /** Scratch robot velocity. */
+  private final double[] velocity = new double[3];
+
+  /** Synthetic controller axes. */
+  private double axisX = 0.0;
+  private double axisY = 0.0;
+  private double axisOmega = 0.0;
+  private double headingX = 0.0;
+  private double headingY = 1.0;
+
+  /** Current synthetic input mode. */
+  private int mode = 0;
+
+  /** Calls of the composition's end conditions. */
+  private int conditionChecks = 0;
+
+  /** Whether the composition has been initialized and not ended. */
+  private boolean compositionRunning = false;
+
+  /** Results of every iteration, written so the JIT cannot remove the work. */
+  private double sink = 0.0;
+
+  /** Iterations run so far. */
+  private long iterations = 0;
+
+  /** Lowest cost of an iteration over a cycle so far, in nanoseconds. */
+  private double bestNanosPerIteration = Double.POSITIVE_INFINITY;
+
+  /** Consecutive cycles within the tolerance of the best cost. */
+  private int stableCycles = 0;
+
+  /** Time spent warming up, in nanoseconds. */
+  private long totalNanos = 0;
+
+  /** Whether warm-up has finished. */
+  private boolean finished = false;
+
+  private final BooleanPublisher finishedPublisher;
+  private final IntegerPublisher iterationsPublisher;
+  private final DoublePublisher costPublisher;
+
+  private JitWarmup() {
+    input = CustomSwerveInput.of(drive, () -> axisX, () -> axisY)
+        .withControllerRotationAxis(() -> axisOmega)
+        .withControllerHeadingAxis(() -> headingX, () -> headingY)
+        .cubeTranslationControllerAxis(true)
+        .scaleTranslation(0.75)
+        .scaleTranslation(() -> (mode & 1) == 0, 0.5)
+        .cubeRotationControllerAxis(true)
+        .deadband(OIConstants.DRIVER_DEADBAND)
+        .allianceRelativeControl(true)
+        .headingWhile(() -> mode == 1)
+        .aim(TARGET)
+        .aimWhile(() -> mode == 2)
+        .translationOnlyWhile(() -> mode == 3)
+        .driveToPose(
+            () -> TARGET,
+            new DriveToPoseController(
+                DriveToPoseConstants.MAX_VELOCITY,
+                DriveToPoseConstants.MAX_ACCELERATION,
+                DriveToPoseConstants.MAX_ANGULAR_VELOCITY,
+                DriveToPoseConstants.MAX_ANGULAR_ACCELERATION,
+                DriveToPoseConstants.TRANSLATION_KP,
+                DriveToPoseConstants.ROTATION_KP))
+        .driveToPoseEnabled(() -> mode == 4)
+        .freeze();
+
+    SwerveModule[] modules = drive.getModules();
+    Translation2d[] locations = new Translation2d[modules.length];
+    for (int i = 0; i < modules.length; i++) {
+      locations[i] = modules[i].configuration.moduleLocation;
+    }
+    kinematics = new SwerveDriveKinematics(locations);
+    moduleSpeeds = new double[modules.length];
+    moduleAngles = new double[modules.length];
+
+    composition = Commands.sequence(
+        Commands.runOnce(this::step),
+        Commands.parallel(Commands.run(this::step).until(this::conditionMet), Commands.waitUntil(this::conditionMet)),
+        Commands.deadline(Commands.waitUntil(this::conditionMet), Commands.run(this::step)),
+        Commands.either(Commands.runOnce(this::step), Commands.none(), this::conditionMet),
+        Commands.race(Commands.run(this::step), Commands.waitUntil(this::conditionMet)));
+
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Warmup");
+    finishedPublisher = table.getBooleanTopic("Finished").publish();
+    iterationsPublisher = table.getIntegerTopic("Iterations").publish();
+    costPublisher = table.getDoubleTopic("NsPerIteration").publish();
+    finishedPublisher.set(false);
+  }
+
+  /**
+   * Get whether warm-up has finished.
+   *
+   * @return True once the hot paths run at steady speed.
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /** Run warm-up iterations for the cycle budget. Called every disabled loop. */
+  public void periodic() {
+    if (finished) {
+      return;
+    }
+
+    long budgetNanos = (long) (WarmupConstants.BUDGET_SECONDS * 1.0e9);
+    long start = System.nanoTime();
+    long elapsed = 0;
+    int cycleIterations = 0;
+    while (elapsed < budgetNanos) {
+      for (int i = 0; i < BATCH_ITERATIONS; i++) {
+        iterate();
+      }
+      cycleIterations += BATCH_ITERATIONS;
+      elapsed = System.nanoTime() - start;
+    }
+    cleanUp();
+
+    totalNanos += elapsed;
+    double nanosPerIteration = (double) elapsed / cycleIterations;
+    bestNanosPerIteration = Math.min(bestNanosPerIteration, nanosPerIteration);
+    if (nanosPerIteration <= bestNanosPerIteration * (1.0 + WarmupConstants.STABLE_TOLERANCE)) {
+      stableCycles++;
+    } else {
+      stableCycles = 0;
+    }
+    finished = iterations >= WarmupConstants.MIN_ITERATIONS && stableCycles >= WarmupConstants.STABLE_CYCLES;
+
+    iterationsPublisher.set(iterations);
+    costPublisher.set(nanosPerIteration);
+    if (finished) {
+      finishedPublisher.set(true);
+      DataLogManager.log(String.format(
+          "JIT warm-up finished after %d iterations in %.0f ms, %.0f ns per iteration (checksum %.3f)",
+          iterations, totalNanos / 1.0e6, nanosPerIteration, sink));
+    }
+  }
+
+  /** Run one iteration of every hot path. */
+  private void iterate() {
+    double phase = iterations * 0.01;
+    iterations++;
+    axisX = Math.sin(phase);
+    axisY = Math.cos(phase * 0.7);
+    axisOmega = Math.sin(phase * 0.3);
+    headingX = Math.cos(phase * 0.5);
+    headingY = Math.sin(phase * 0.5);
+    mode = (int) ((iterations / MODE_ITERATIONS) % MODE_COUNT);
+
+    input.get(speeds);
+
+    // The same conversion YAGSL does before commanding the modules.
+    ChassisSpeeds discretized = ChassisSpeeds.discretize(speeds, TimedRobot.kDefaultPeriod);
+    SwerveModuleState[] states = kinematics.toSwerveModuleStates(discretized);
+    SwerveDriveKinematics.desaturateWheelSpeeds(states, drive.getMaximumChassisVelocity());
+    swerve.getModuleStates(moduleSpeeds, moduleAngles);
+    for (int i = 0; i < states.length; i++) {
+      Rotation2d angle = Rotation2d.fromRadians(moduleAngles[i]);
+      states[i].optimize(angle);
+      states[i].cosineScale(angle);
+      sink += states[i].speedMetersPerSecond;
+    }
+    swerve.getRobotVelocity(velocity);
+    sink += speeds.vxMetersPerSecond + speeds.omegaRadiansPerSecond + velocity[2];
+
+    if (!compositionRunning) {
+      composition.initialize();
+      compositionRunning = true;
+    }
+    composition.execute();
+    if (composition.isFinished()) {
+      composition.end(false);
+      compositionRunning = false;
+    }
+  }
+
+  /** Step of a command in the composition. */
+  private void step() {
+    sink += 1.0e-9;
+  }
+
+  /**
+   * End condition of the commands in the composition, true every few checks.
+   *
+   * @return Whether the condition is met.
+   */
+  private boolean conditionMet() {
+    return (++conditionChecks & 3) == 0;
+  }
+
+  /**
+   * Leave nothing behind for the enabled code: interrupt the composition and
+   * clear the state warm-up put in the drive's shared heading controller.
+   */
+  private void cleanUp() {
+    if (compositionRunning) {
+      composition.end(true);
+      compositionRunning = false;
+    }
+    drive.getSwerveController().thetaController.reset();
+  }
+}
@@ -0,0 +1,125 @@
+package frc.robot.helpers;
+
+/**
+ * Fixed-bucket histogram of durations in microseconds. All storage is
+ * allocated up front so recording and reading percentiles never creates
+ * garbage, which makes it safe to use every loop.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * LatencyHistogram histogram = new LatencyHistogram(100, 500);
+ * histogram.record(1234);
+ * double p99Millis = histogram.getPercentile(0.99) / 1000.0;
+ * }</pre>
+ */
+public final class LatencyHistogram {
+  /** Width of each bucket in microseconds. */
+  private final long bucketWidthMicros;
+
+  /** Sample counts per bucket, the last bucket also holds every larger sample. */
+  private final long[] counts;
+
+  /** Number of recorded samples. */
+  private long totalCount = 0;
+
+  /** Largest recorded sample in microseconds. */
+  private long maxMicros = 0;
+
+  /** Sum of all recorded samples in microseconds. */
+  private long sumMicros = 0;
+
+  /**
+   * Creates a histogram covering {@code bucketWidthMicros * bucketCount}
+   * microseconds. Larger samples are counted in the last bucket, but the exact
+   * maximum is still tracked.
+   *
+   * @param bucketWidthMicros Width of each bucket in microseconds.
+   * @param bucketCount       Number of buckets.
+   */
+  public LatencyHistogram(long bucketWidthMicros, int bucketCount) {
+    this.bucketWidthMicros = bucketWidthMicros;
+    this.counts = new long[bucketCount];
+  }
+
+  /**
+   * Record a sample. Negative samples are counted as zero.
+   *
+   * @param micros Duration in microseconds.
+   */
+  public void record(long micros) {
+    if (micros < 0) {
+      micros = 0;
+    }
+    int bucket = (int) Math.min(micros / bucketWidthMicros, counts.length - 1);
+    counts[bucket]++;
+    totalCount++;
+    sumMicros += micros;
+    if (micros > maxMicros) {
+      maxMicros = micros;
+    }
+  }
+
+  /**
+   * Get the approximate value at a percentile, reported as the upper edge of the
+   * bucket it falls in and capped at the maximum recorded sample.
+   *
+   * @param percentile Percentile in the range [0, 1].
+   * @return The percentile in microseconds, 0 if nothing was recorded.
+   */
+  public double getPercentile(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile * totalCount);
+    if (rank < 1) {
+      rank = 1;
+    }
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min((i + 1) * bucketWidthMicros, maxMicros);
+      }
+    }
+    return maxMicros;
+  }
+
+  /**
+   * Get the largest recorded sample.
+   *
+   * @return The maximum in microseconds.
+   */
+  public double getMax() {
+    return maxMicros;
+  }
+
+  /**
+   * Get the mean of the recorded samples.
+   *
+   * @return The mean in microseconds, 0 if nothing was recorded.
+   */
+  public double getMean() {
+    return totalCount == 0 ? 0 : (double) sumMicros / totalCount;
+  }
+
+  /**
+   * Get the number of recorded samples.
+   *
+   * @return The sample count.
+   */
+  public long getCount() {
+    return totalCount;
+  }
+
+  /** Clear every recorded sample. */
+  public void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0;
+    }
+    totalCount = 0;
+    maxMicros = 0;
+    sumMicros = 0;
+  }
+}
@@ -0,0 +1,274 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Measures how long it takes for driver station input to reach the actuators.
+ * A background thread timestamps every driver station packet as it arrives,
+ * and the code along each {@link Chain} marks when it reaches each
+ * {@link Stage}. When a chain reaches {@link Stage#ACTUATION} the time spent
+ * between each recorded stage is added to a {@link LatencyHistogram}.
+ *
+ * <p>
+ * The p50, p99 and max of every histogram are published under
+ * {@code Robot/Latency} once a second, and the total latency of every
+ * actuation is written to the data log. Histograms are cleared whenever the
+ * robot mode changes so each mode is measured on its own.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * LatencyTracker latency = LatencyTracker.getInstance();
+ * latency.mark(Chain.INTAKE, Stage.COMMAND_EXECUTE);
+ * intakeMotor.set(power);
+ * latency.mark(Chain.INTAKE, Stage.ACTUATION);
+ * }</pre>
+ */
+public final class LatencyTracker {
+  /** Singleton instance. */
+  private static LatencyTracker instance;
+
+  /**
+   * Gets the singleton instance of the latency tracker.
+   *
+   * @return The singleton instance.
+   */
+  public static LatencyTracker getInstance() {
+    if (instance == null) {
+      instance = new LatencyTracker();
+    }
+    return instance;
+  }
+
+  /** A path from an operator input to an actuator. */
+  public enum Chain {
+    /** Driver sticks to swerve module setpoints. */
+    DRIVE("Drive"),
+    /** Operator buttons to the coral intake motor. */
+    INTAKE("Intake"),
+    /** Operator buttons to the coral arm solenoid. */
+    ARM("Arm");
+
+    /** Name used for NetworkTables and the data log. */
+    private final String displayName;
+
+    Chain(String displayName) {
+      this.displayName = displayName;
+    }
+  }
+
+  /** Points along a {@link Chain}, in the order they happen in a cycle. */
+  public enum Stage {
+    /** Driver station packet arrived at the robot. */
+    DS_PACKET("DSPacket"),
+    /** The command scheduler started executing the command. */
+    COMMAND_EXECUTE("CommandExecute"),
+    /** The controller input was sampled. */
+    INPUT_SAMPLE("InputSample"),
+    /** The motor or solenoid write completed. */
+    ACTUATION("Actuation");
+
+    /** Name used for NetworkTables. */
+    private final String displayName;
+
+    Stage(String displayName) {
+      this.displayName = displayName;
+    }
+  }
+
+  /** Number of cycles between NetworkTables updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Histogram bucket width in microseconds. */
+  private static final long BUCKET_WIDTH_MICROS = 100;
+
+  /** Histogram bucket count, covering 100 ms. */
+  private static final int BUCKET_COUNT = 1000;
+
+  /** Index of the total latency histogram for each chain. */
+  private static final int TOTAL = 0;
+
+  /** FPGA timestamp of the latest driver station packet, 0 before the first. */
+  private volatile long lastPacketMicros = 0;
+
+  /** Match state, for when the driver station data of the cycle was read. */
+  private final MatchState matchState = MatchState.getInstance();
+
+  /** Timestamp of each stage in the current pass of each chain. */
+  private final long[][] stageMicros = new long[Chain.values().length][Stage.values().length];
+
+  /** Whether each stage was reached in the current pass of each chain. */
+  private final boolean[][] stageMarked = new boolean[Chain.values().length][Stage.values().length];
+
+  /**
+   * Histograms for each chain. Index {@link #TOTAL} holds the total latency,
+   * every other index holds the time spent reaching that {@link Stage} from the
+   * previous recorded stage.
+   */
+  private final LatencyHistogram[][] histograms = new LatencyHistogram[Chain.values().length][Stage.values().length];
+
+  /** p50 publishers, indexed like {@link #histograms}. */
+  private final DoublePublisher[][] p50Publishers = new DoublePublisher[Chain.values().length][Stage.values().length];
+
+  /** p99 publishers, indexed like {@link #histograms}. */
+  private final DoublePublisher[][] p99Publishers = new DoublePublisher[Chain.values().length][Stage.values().length];
+
+  /** Max publishers, indexed like {@link #histograms}. */
+  private final DoublePublisher[][] maxPublishers = new DoublePublisher[Chain.values().length][Stage.values().length];
+
+  /** Data log entries for the total latency of each chain. */
+  private final DoubleLogEntry[] totalLogEntries = new DoubleLogEntry[Chain.values().length];
+
+  /** Cycles since the last NetworkTables update. */
+  private int cyclesSincePublish = 0;
+
+  private LatencyTracker() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Latency");
+    DataLog log = DataLogManager.getLog();
+
+    for (Chain chain : Chain.values()) {
+      NetworkTable chainTable = table.getSubTable(chain.displayName);
+      for (Stage stage : Stage.values()) {
+        if (stage == Stage.DS_PACKET) {
+          continue;
+        }
+        createHistogram(chain, stage.ordinal(), chainTable.getSubTable(stage.displayName));
+      }
+      createHistogram(chain, TOTAL, chainTable.getSubTable("Total"));
+      totalLogEntries[chain.ordinal()] = new DoubleLogEntry(log, "/Latency/" + chain.displayName + "/TotalMs");
+    }
+
+    startPacketTimestampThread();
+    matchState.onModeChange(this::reset);
+  }
+
+  /**
+   * Create the histogram and publishers for one slot of a chain.
+   *
+   * @param chain Chain the histogram belongs to.
+   * @param index Slot in {@link #histograms}.
+   * @param table Table to publish under.
+   */
+  private void createHistogram(Chain chain, int index, NetworkTable table) {
+    histograms[chain.ordinal()][index] = new LatencyHistogram(BUCKET_WIDTH_MICROS, BUCKET_COUNT);
+    p50Publishers[chain.ordinal()][index] = table.getDoubleTopic("p50Ms").publish();
+    p99Publishers[chain.ordinal()][index] = table.getDoubleTopic("p99Ms").publish();
+    maxPublishers[chain.ordinal()][index] = table.getDoubleTopic("maxMs").publish();
+  }
+
+  /**
+   * Start the daemon thread that waits on the HAL new data event and records
+   * when each driver station packet arrives.
+   */
+  private void startPacketTimestampThread() {
+    int event = WPIUtilJNI.createEvent(false, false);
+    DriverStationJNI.provideNewDataEventHandle(event);
+
+    Thread thread = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        try {
+          WPIUtilJNI.waitForObject(event);
+        } catch (InterruptedException e) {
+          break;
+        }
+        lastPacketMicros = RobotController.getFPGATime();
+      }
+      DriverStationJNI.removeNewDataEventHandle(event);
+      WPIUtilJNI.destroyEvent(event);
+    }, "DSPacketTimestamp");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Mark that a chain reached a stage. Marking {@link Stage#ACTUATION} records
+   * the pass into the histograms and starts a new one.
+   *
+   * @param chain Chain being measured.
+   * @param stage Stage that was reached.
+   */
+  public void mark(Chain chain, Stage stage) {
+    int c = chain.ordinal();
+    stageMicros[c][stage.ordinal()] = RobotController.getFPGATime();
+    stageMarked[c][stage.ordinal()] = true;
+
+    if (stage == Stage.ACTUATION) {
+      record(c);
+    }
+  }
+
+  /**
+   * Record a completed pass of a chain and clear its marks.
+   *
+   * @param c Chain ordinal.
+   */
+  private void record(int c) {
+    // Ignore a packet that arrived after the driver station data of this cycle
+    // was read, it was not used.
+    long packetMicros = lastPacketMicros;
+    if (packetMicros != 0 && packetMicros <= matchState.getRefreshMicros()) {
+      stageMicros[c][Stage.DS_PACKET.ordinal()] = packetMicros;
+      stageMarked[c][Stage.DS_PACKET.ordinal()] = true;
+    }
+
+    long firstMicros = -1;
+    long previousMicros = -1;
+    for (int s = 0; s < stageMicros[c].length; s++) {
+      if (!stageMarked[c][s]) {
+        continue;
+      }
+      long micros = stageMicros[c][s];
+      if (previousMicros >= 0) {
+        histograms[c][s].record(micros - previousMicros);
+      } else {
+        firstMicros = micros;
+      }
+      previousMicros = micros;
+      stageMarked[c][s] = false;
+    }
+
+    long totalMicros = previousMicros - firstMicros;
+    histograms[c][TOTAL].record(totalMicros);
+    totalLogEntries[c].append(totalMicros / 1000.0);
+  }
+
+  /** Publish the histograms to NetworkTables. Called every robot loop. */
+  public void periodic() {
+    if (++cyclesSincePublish < PUBLISH_PERIOD_CYCLES) {
+      return;
+    }
+    cyclesSincePublish = 0;
+
+    for (int c = 0; c < histograms.length; c++) {
+      for (int s = 0; s < histograms[c].length; s++) {
+        LatencyHistogram histogram = histograms[c][s];
+        if (histogram == null) {
+          continue;
+        }
+        p50Publishers[c][s].set(histogram.getPercentile(0.50) / 1000.0);
+        p99Publishers[c][s].set(histogram.getPercentile(0.99) / 1000.0);
+        maxPublishers[c][s].set(histogram.getMax() / 1000.0);
+      }
+    }
+  }
+
+  /** Clear every histogram. */
+  public void reset() {
+    for (LatencyHistogram[] chainHistograms : histograms) {
+      for (LatencyHistogram histogram : chainHistograms) {
+        if (histogram != null) {
+          histogram.reset();
+        }
+      }
+    }
+  }
+}
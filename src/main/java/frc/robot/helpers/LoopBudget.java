@@ -0,0 +1,200 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+
+/**
+ * Runs the work of each robot loop against a time budget. Work is registered
+ * as {@link Priority#CRITICAL}, which always runs, or
+ * {@link Priority#DEFERRABLE}, which is skipped for the cycle when it would
+ * not finish before the shed threshold. Critical work runs first, in
+ * registration order. Deferrable work runs afterwards, starting with the first
+ * task shed in the previous cycle.
+ *
+ * <p>
+ * The decision uses the time since {@link #startCycle()} plus a moving
+ * average of each task's own cost, so an overrunning cycle ends as soon as the
+ * control work is done and the next cycle starts on time. A single slow run
+ * moves the average by at most a tenth of the shed threshold, the average of
+ * a shed task decays every cycle it is shed, and a task shed for a second of
+ * cycles in a row runs regardless, so no task is postponed forever.
+ *
+ * <p>
+ * The number of cycles that shed work and the number of times each task was
+ * shed are published under {@code Robot/LoopBudget} once a second.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * LoopBudget budget = new LoopBudget(0.015);
+ * budget.register("CommandScheduler", Priority.CRITICAL, CommandScheduler.getInstance()::run);
+ * budget.register("Telemetry", Priority.DEFERRABLE, TelemetryManager.getInstance()::periodic);
+ *
+ * // Every loop
+ * budget.startCycle();
+ * budget.run();
+ * }</pre>
+ */
+public final class LoopBudget {
+  /** Whether a task may be skipped when the loop is running late. */
+  public enum Priority {
+    /** Always runs, for anything that affects the actuators. */
+    CRITICAL,
+    /** Skipped for the cycle when the loop is over its budget. */
+    DEFERRABLE
+  }
+
+  /** A registered piece of work. */
+  private static final class Task {
+    private final Runnable work;
+
+    /** Publisher for {@link #shedCount}, null for critical tasks. */
+    private final IntegerPublisher shedPublisher;
+
+    /** Moving average of the task's run time in microseconds. */
+    private double averageMicros = 0.0;
+
+    /** Number of cycles the task was shed. */
+    private long shedCount = 0;
+
+    /** Number of cycles in a row the task was shed. */
+    private int consecutiveSheds = 0;
+
+    private Task(Runnable work, IntegerPublisher shedPublisher) {
+      this.work = work;
+      this.shedPublisher = shedPublisher;
+    }
+
+    /**
+     * Run the task and update its average cost.
+     *
+     * @param maxSampleMicros Largest run time counted, in microseconds.
+     */
+    private void run(long maxSampleMicros) {
+      long startMicros = RobotController.getFPGATime();
+      work.run();
+      long sampleMicros = Math.min(RobotController.getFPGATime() - startMicros, maxSampleMicros);
+      averageMicros += (sampleMicros - averageMicros) * AVERAGE_WEIGHT;
+      consecutiveSheds = 0;
+    }
+
+    /** Count a shed cycle and lower the average cost, it may be stale. */
+    private void shed() {
+      shedCount++;
+      consecutiveSheds++;
+      averageMicros *= SHED_DECAY;
+    }
+  }
+
+  /** Weight of the newest sample in each task's moving average. */
+  private static final double AVERAGE_WEIGHT = 0.1;
+
+  /**
+   * Factor applied to a task's average cost every cycle it is shed, so one slow
+   * run cannot keep the task shed once the loop has time for it again.
+   */
+  private static final double SHED_DECAY = 0.9;
+
+  /** Cycles in a row a task may be shed before it runs regardless. */
+  private static final int MAX_CONSECUTIVE_SHEDS = 50;
+
+  /** Number of cycles between NetworkTables updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Time into a cycle after which deferrable work is shed, in microseconds. */
+  private final long shedThresholdMicros;
+
+  private final ArrayList<Task> criticalTasks = new ArrayList<>();
+  private final ArrayList<Task> deferrableTasks = new ArrayList<>();
+
+  /** Index of the deferrable task to try first this cycle. */
+  private int nextDeferrable = 0;
+
+  /** FPGA time the current cycle started at, in microseconds. */
+  private long cycleStartMicros = 0;
+
+  /** Number of cycles that shed at least one task. */
+  private long shedCycles = 0;
+
+  /** Cycles since the last NetworkTables update. */
+  private int cyclesSincePublish = 0;
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("LoopBudget");
+  private final IntegerPublisher shedCyclesPublisher = table.getIntegerTopic("ShedCycles").publish();
+
+  /**
+   * Creates a new loop budget.
+   *
+   * @param shedThresholdSeconds Time into a cycle after which deferrable work
+   *                             is shed, in seconds.
+   */
+  public LoopBudget(double shedThresholdSeconds) {
+    this.shedThresholdMicros = (long) (shedThresholdSeconds * 1.0e6);
+  }
+
+  /**
+   * Register work to run every cycle.
+   *
+   * @param name     Name of the work, used for the shed count.
+   * @param priority Whether the work may be shed.
+   * @param work     Work to run.
+   */
+  public void register(String name, Priority priority, Runnable work) {
+    if (priority == Priority.CRITICAL) {
+      criticalTasks.add(new Task(work, null));
+    } else {
+      deferrableTasks.add(new Task(work, table.getSubTable("Shed").getIntegerTopic(name).publish()));
+    }
+  }
+
+  /** Mark the start of a cycle. Call as early in the loop as possible. */
+  public void startCycle() {
+    cycleStartMicros = RobotController.getFPGATime();
+  }
+
+  /** Run the critical work, then as much deferrable work as the budget allows. */
+  public void run() {
+    for (int i = 0; i < criticalTasks.size(); i++) {
+      criticalTasks.get(i).run(shedThresholdMicros);
+    }
+
+    int count = deferrableTasks.size();
+    int firstShed = -1;
+    for (int n = 0; n < count; n++) {
+      int index = (nextDeferrable + n) % count;
+      Task task = deferrableTasks.get(index);
+      long elapsedMicros = RobotController.getFPGATime() - cycleStartMicros;
+      if (elapsedMicros + task.averageMicros > shedThresholdMicros
+          && task.consecutiveSheds < MAX_CONSECUTIVE_SHEDS) {
+        task.shed();
+        if (firstShed < 0) {
+          firstShed = index;
+        }
+        continue;
+      }
+      task.run(shedThresholdMicros);
+    }
+    if (firstShed >= 0) {
+      nextDeferrable = firstShed;
+      shedCycles++;
+    }
+
+    if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+      cyclesSincePublish = 0;
+      publish();
+    }
+  }
+
+  /** Publish the shed counts. */
+  private void publish() {
+    shedCyclesPublisher.set(shedCycles);
+    for (int i = 0; i < deferrableTasks.size(); i++) {
+      Task task = deferrableTasks.get(i);
+      task.shedPublisher.set(task.shedCount);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Always-on profiler for the main loop. Every subsystem's {@code periodic()} is
+ * timed by {@link ProfiledSubsystem}, other code sections are timed with a
+ * {@link Section}, and every command's {@code execute()} is timed through
+ * {@link CommandScheduler#onCommandExecute}. Each gets its own
+ * {@link LatencyHistogram}, so profiling creates no garbage once every command
+ * name has run once. Commands are timed by name, so instances with the same
+ * name, such as autonomous routines built again, share one histogram.
+ *
+ * <p>
+ * The p50, p99 and max of every histogram are published under
+ * {@code Robot/Profiler} once a second. Histograms are cleared whenever the
+ * robot mode changes so each mode is measured on its own.
+ *
+ * <p>
+ * The scheduler only calls its execute hooks after a command has executed, so
+ * a command's time is measured from the previous hook. It includes the
+ * previous command's {@code isFinished()}, and the first command's time starts
+ * when the button bindings have been polled.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * private final LoopProfiler.Section profile = LoopProfiler.getInstance().section("Compressor");
+ *
+ * profile.start();
+ * pneumatics.enableCompressor();
+ * profile.stop();
+ * }</pre>
+ */
+public final class LoopProfiler {
+  /** Singleton instance. */
+  private static LoopProfiler instance;
+
+  /**
+   * Gets the singleton instance of the loop profiler.
+   *
+   * @return The singleton instance.
+   */
+  public static LoopProfiler getInstance() {
+    if (instance == null) {
+      instance = new LoopProfiler();
+    }
+    return instance;
+  }
+
+  /** Number of cycles between NetworkTables updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Histogram bucket width in microseconds. */
+  private static final long BUCKET_WIDTH_MICROS = 10;
+
+  /** Histogram bucket count, covering 20 ms. */
+  private static final int BUCKET_COUNT = 2000;
+
+  /** A timed piece of the loop with its own histogram. */
+  public static final class Section {
+    private final LatencyHistogram histogram = new LatencyHistogram(BUCKET_WIDTH_MICROS, BUCKET_COUNT);
+    private final DoublePublisher p50Publisher;
+    private final DoublePublisher p99Publisher;
+    private final DoublePublisher maxPublisher;
+
+    /** FPGA time of the last {@link #start()} in microseconds. */
+    private long startMicros = 0;
+
+    private Section(NetworkTable table) {
+      p50Publisher = table.getDoubleTopic("p50Ms").publish();
+      p99Publisher = table.getDoubleTopic("p99Ms").publish();
+      maxPublisher = table.getDoubleTopic("maxMs").publish();
+    }
+
+    /** Start timing the section. */
+    public void start() {
+      startMicros = RobotController.getFPGATime();
+    }
+
+    /** Stop timing the section and record the time since {@link #start()}. */
+    public void stop() {
+      histogram.record(RobotController.getFPGATime() - startMicros);
+    }
+
+    /**
+     * Record a duration measured elsewhere.
+     *
+     * @param micros Duration in microseconds.
+     */
+    private void record(long micros) {
+      histogram.record(micros);
+    }
+
+    /** Publish the histogram. */
+    private void publish() {
+      p50Publisher.set(histogram.getPercentile(0.50) / 1000.0);
+      p99Publisher.set(histogram.getPercentile(0.99) / 1000.0);
+      maxPublisher.set(histogram.getMax() / 1000.0);
+    }
+  }
+
+  /** Every section, in creation order. */
+  private final ArrayList<Section> sections = new ArrayList<>();
+
+  /** Section for each command name seen so far. */
+  private final HashMap<String, Section> commandSections = new HashMap<>();
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Profiler");
+
+  /** FPGA time the current command's execute started at, in microseconds. */
+  private long commandStartMicros = 0;
+
+  /** Cycles since the last NetworkTables update. */
+  private int cyclesSincePublish = 0;
+
+  private LoopProfiler() {
+    MatchState.getInstance().onModeChange(this::reset);
+  }
+
+  /**
+   * Create a section published under {@code Robot/Profiler/<name>}.
+   *
+   * @param name Name of the section.
+   * @return The new section.
+   */
+  public Section section(String name) {
+    Section section = new Section(table.getSubTable(name));
+    sections.add(section);
+    return section;
+  }
+
+  /**
+   * Create the section of a subsystem's {@code periodic()}, published under
+   * {@code Robot/Profiler/Subsystems/<name>}.
+   *
+   * @param name Name of the subsystem.
+   * @return The new section.
+   */
+  Section subsystemSection(String name) {
+    Section section = new Section(table.getSubTable("Subsystems").getSubTable(name));
+    sections.add(section);
+    return section;
+  }
+
+  /**
+   * Start timing commands. Call once after every button binding has been
+   * created, so the bindings are polled before the timing starts.
+   */
+  public void startCommandTiming() {
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.getDefaultButtonLoop().bind(() -> commandStartMicros = RobotController.getFPGATime());
+    scheduler.onCommandExecute(this::recordCommand);
+  }
+
+  /**
+   * Record the execute time of a command. Called by the scheduler after the
+   * command executed.
+   *
+   * @param command Command that executed.
+   */
+  private void recordCommand(Command command) {
+    long nowMicros = RobotController.getFPGATime();
+    String name = command.getName();
+    Section section = commandSections.get(name);
+    if (section == null) {
+      section = new Section(table.getSubTable("Commands").getSubTable(name));
+      sections.add(section);
+      commandSections.put(name, section);
+    }
+    section.record(nowMicros - commandStartMicros);
+    commandStartMicros = nowMicros;
+  }
+
+  /** Publish the histograms to NetworkTables. Called every robot loop. */
+  public void periodic() {
+    if (++cyclesSincePublish < PUBLISH_PERIOD_CYCLES) {
+      return;
+    }
+    cyclesSincePublish = 0;
+
+    for (int i = 0; i < sections.size(); i++) {
+      sections.get(i).publish();
+    }
+  }
+
+  /** Clear every histogram. */
+  public void reset() {
+    for (int i = 0; i < sections.size(); i++) {
+      sections.get(i).histogram.reset();
+    }
+  }
+}
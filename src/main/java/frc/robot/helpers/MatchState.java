@@ -0,0 +1,247 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+
+/**
+ * Snapshot of the match information reported by the driver station. Reading
+ * from {@link DriverStation} takes a lock and allocates an {@link java.util.Optional}
+ * for the alliance, so the values are read once per cycle by {@link #refresh()}
+ * and cached here as primitives.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * MatchState matchState = MatchState.getInstance();
+ * matchState.onAllianceChange(() -> System.out.println("Alliance changed"));
+ *
+ * if (matchState.isRedAlliance()) {
+ *   // Flip field relative targets
+ * }
+ * }</pre>
+ */
+public final class MatchState {
+  /** Singleton instance. */
+  private static MatchState instance;
+
+  /**
+   * Gets the singleton instance of the match state.
+   *
+   * @return The singleton instance.
+   */
+  public static MatchState getInstance() {
+    if (instance == null) {
+      instance = new MatchState();
+    }
+    return instance;
+  }
+
+  /** Robot mode as reported by the driver station. */
+  public enum Mode {
+    /** Robot is disabled. */
+    DISABLED,
+    /** Robot is enabled in autonomous. */
+    AUTONOMOUS,
+    /** Robot is enabled in teleop. */
+    TELEOP,
+    /** Robot is enabled in test. */
+    TEST
+  }
+
+  /** Whether the driver station has reported an alliance. */
+  private boolean allianceKnown = false;
+
+  /** Whether the robot is on the red alliance. */
+  private boolean redAlliance = false;
+
+  /** Approximate match time in seconds, -1 when not in a match. */
+  private double matchTime = -1.0;
+
+  /** Current robot mode. */
+  private Mode mode = Mode.DISABLED;
+
+  /** Whether the FMS is attached. */
+  private boolean fmsAttached = false;
+
+  /** Whether the driver station is attached. */
+  private boolean dsAttached = false;
+
+  /** FPGA timestamp of the last refresh in microseconds. */
+  private long refreshMicros = 0;
+
+  /** Listeners notified when the alliance changes. */
+  private final ArrayList<Runnable> allianceListeners = new ArrayList<>();
+
+  /** Listeners notified when the robot mode changes. */
+  private final ArrayList<Runnable> modeListeners = new ArrayList<>();
+
+  /** Listeners notified when the FMS is attached or detached. */
+  private final ArrayList<Runnable> fmsListeners = new ArrayList<>();
+
+  private MatchState() {
+    refresh();
+  }
+
+  /**
+   * Read the driver station once and update the cached values, firing change
+   * listeners for anything that changed. Called at the start of every
+   * {@link frc.robot.Robot#robotPeriodic()}, after the driver station data for
+   * the cycle has been refreshed.
+   */
+  public void refresh() {
+    refreshMicros = RobotController.getFPGATime();
+    var alliance = DriverStation.getAlliance();
+    boolean newAllianceKnown = alliance.isPresent();
+    boolean newRedAlliance = newAllianceKnown && alliance.get() == Alliance.Red;
+
+    Mode newMode;
+    if (DriverStation.isDisabled()) {
+      newMode = Mode.DISABLED;
+    } else if (DriverStation.isAutonomous()) {
+      newMode = Mode.AUTONOMOUS;
+    } else if (DriverStation.isTest()) {
+      newMode = Mode.TEST;
+    } else {
+      newMode = Mode.TELEOP;
+    }
+
+    boolean newFmsAttached = DriverStation.isFMSAttached();
+
+    matchTime = DriverStation.getMatchTime();
+    dsAttached = DriverStation.isDSAttached();
+
+    boolean allianceChanged = newAllianceKnown != allianceKnown || newRedAlliance != redAlliance;
+    boolean modeChanged = newMode != mode;
+    boolean fmsChanged = newFmsAttached != fmsAttached;
+
+    allianceKnown = newAllianceKnown;
+    redAlliance = newRedAlliance;
+    mode = newMode;
+    fmsAttached = newFmsAttached;
+
+    if (allianceChanged) {
+      fire(allianceListeners);
+    }
+    if (modeChanged) {
+      fire(modeListeners);
+    }
+    if (fmsChanged) {
+      fire(fmsListeners);
+    }
+  }
+
+  /**
+   * Run every listener in a list.
+   *
+   * @param listeners Listeners to run.
+   */
+  private static void fire(ArrayList<Runnable> listeners) {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).run();
+    }
+  }
+
+  /**
+   * Register a listener that runs when the alliance changes.
+   *
+   * @param listener Listener to run.
+   */
+  public void onAllianceChange(Runnable listener) {
+    allianceListeners.add(listener);
+  }
+
+  /**
+   * Register a listener that runs when the robot mode changes.
+   *
+   * @param listener Listener to run.
+   */
+  public void onModeChange(Runnable listener) {
+    modeListeners.add(listener);
+  }
+
+  /**
+   * Register a listener that runs when the FMS is attached or detached.
+   *
+   * @param listener Listener to run.
+   */
+  public void onFmsAttachedChange(Runnable listener) {
+    fmsListeners.add(listener);
+  }
+
+  /**
+   * Get whether the driver station has reported an alliance.
+   *
+   * @return True if the alliance is known.
+   */
+  public boolean isAllianceKnown() {
+    return allianceKnown;
+  }
+
+  /**
+   * Get whether the robot is on the red alliance. False when the alliance is not
+   * known.
+   *
+   * @return True if on the red alliance.
+   */
+  public boolean isRedAlliance() {
+    return redAlliance;
+  }
+
+  /**
+   * Get the approximate match time from the last refresh.
+   *
+   * @return Match time in seconds, -1 when not in a match.
+   */
+  public double getMatchTime() {
+    return matchTime;
+  }
+
+  /**
+   * Get when the driver station data used by this cycle was read. A driver
+   * station packet that arrived later is only used by the next cycle.
+   *
+   * @return FPGA timestamp of the last refresh in microseconds.
+   */
+  public long getRefreshMicros() {
+    return refreshMicros;
+  }
+
+  /**
+   * Get the robot mode from the last refresh.
+   *
+   * @return The robot mode.
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Get whether the robot is enabled.
+   *
+   * @return True if enabled in any mode.
+   */
+  public boolean isEnabled() {
+    return mode != Mode.DISABLED;
+  }
+
+  /**
+   * Get whether the FMS is attached.
+   *
+   * @return True if the FMS is attached.
+   */
+  public boolean isFMSAttached() {
+    return fmsAttached;
+  }
+
+  /**
+   * Get whether the driver station is attached.
+   *
+   * @return True if the driver station is attached.
+   */
+  public boolean isDSAttached() {
+    return dsAttached;
+  }
+}
@@ -0,0 +1,200 @@
+package frc.robot.helpers;
+
+import frc.robot.Constants.FieldConstants;
+import frc.robot.Constants.NavigationConstants;
+
+/**
+ * Grid over the field marking the cells the robot center cannot enter: the
+ * field elements grown by the robot radius. Built once and never changed, so it
+ * can be read from any thread.
+ *
+ * <p>
+ * The obstacles are the perimeter walls, the four coral station corners and
+ * both reefs. The reefs are hexagons with a face towards each driver station.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * OccupancyGrid grid = OccupancyGrid.getInstance();
+ * boolean clear = grid.hasLineOfSight(1.5, 4.0, 7.0, 4.0); // false, the reef is in the way
+ * }</pre>
+ */
+public final class OccupancyGrid {
+  /** Singleton instance. */
+  private static OccupancyGrid instance;
+
+  /**
+   * Gets the singleton instance of the occupancy grid.
+   *
+   * @return The singleton instance.
+   */
+  public static synchronized OccupancyGrid getInstance() {
+    if (instance == null) {
+      instance = new OccupancyGrid();
+    }
+    return instance;
+  }
+
+  private final double resolution = NavigationConstants.GRID_RESOLUTION_METERS;
+  private final int columns;
+  private final int rows;
+
+  /** Blocked cells, indexed by {@code row * columns + column}. */
+  private final boolean[] blocked;
+
+  private OccupancyGrid() {
+    columns = (int) Math.ceil(FieldConstants.FIELD_LENGTH_METERS / resolution);
+    rows = (int) Math.ceil(FieldConstants.FIELD_WIDTH_METERS / resolution);
+    blocked = new boolean[columns * rows];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        blocked[row * columns + column] = isObstacle(
+            (column + 0.5) * resolution, (row + 0.5) * resolution, NavigationConstants.ROBOT_RADIUS_METERS);
+      }
+    }
+  }
+
+  /**
+   * Get whether a point is within a distance of a field element.
+   *
+   * @param x         X of the point in meters.
+   * @param y         Y of the point in meters.
+   * @param clearance Distance to keep from the field elements in meters.
+   * @return Whether the point is too close.
+   */
+  private static boolean isObstacle(double x, double y, double clearance) {
+    double length = FieldConstants.FIELD_LENGTH_METERS;
+    double width = FieldConstants.FIELD_WIDTH_METERS;
+    if (x < clearance || y < clearance || x > length - clearance || y > width - clearance) {
+      return true;
+    }
+
+    // The field is symmetric about its center, fold every point into the blue
+    // corner and reef.
+    double cornerX = Math.min(x, length - x);
+    double cornerY = Math.min(y, width - y);
+    double stationLength = FieldConstants.CORAL_STATION_LENGTH_METERS;
+    double stationWidth = FieldConstants.CORAL_STATION_WIDTH_METERS;
+    double stationDistance = (cornerX * stationWidth + cornerY * stationLength - stationLength * stationWidth)
+        / Math.hypot(stationLength, stationWidth);
+    if (stationDistance < clearance) {
+      return true;
+    }
+
+    double reefX = x < length / 2 ? x : length - x;
+    double reefY = x < length / 2 ? y : width - y;
+    double dx = reefX - FieldConstants.REEF_CENTER_X_METERS;
+    double dy = reefY - FieldConstants.REEF_CENTER_Y_METERS;
+    double reach = FieldConstants.REEF_APOTHEM_METERS + clearance;
+    for (int face = 0; face < 6; face++) {
+      double angle = face * Math.PI / 3;
+      if (dx * Math.cos(angle) + dy * Math.sin(angle) > reach) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of cells along the field.
+   *
+   * @return The number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Get the number of cells across the field.
+   *
+   * @return The number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Get the number of cells.
+   *
+   * @return The number of cells.
+   */
+  public int getCellCount() {
+    return blocked.length;
+  }
+
+  /**
+   * Get the side of a cell.
+   *
+   * @return The side in meters.
+   */
+  public double getResolution() {
+    return resolution;
+  }
+
+  /**
+   * Get the cell containing a point, clamped to the field.
+   *
+   * @param x X in meters.
+   * @param y Y in meters.
+   * @return The cell index.
+   */
+  public int cellAt(double x, double y) {
+    int column = Math.max(0, Math.min(columns - 1, (int) (x / resolution)));
+    int row = Math.max(0, Math.min(rows - 1, (int) (y / resolution)));
+    return row * columns + column;
+  }
+
+  /**
+   * Get the X of a cell center.
+   *
+   * @param cell Cell index.
+   * @return X in meters.
+   */
+  public double centerX(int cell) {
+    return (cell % columns + 0.5) * resolution;
+  }
+
+  /**
+   * Get the Y of a cell center.
+   *
+   * @param cell Cell index.
+   * @return Y in meters.
+   */
+  public double centerY(int cell) {
+    return (cell / columns + 0.5) * resolution;
+  }
+
+  /**
+   * Get whether the robot center cannot be in a cell.
+   *
+   * @param cell Cell index.
+   * @return Whether the cell is blocked.
+   */
+  public boolean isBlocked(int cell) {
+    return blocked[cell];
+  }
+
+  /**
+   * Get whether the robot can drive straight between two points, checking the
+   * cells every half cell along the segment.
+   *
+   * @param fromX Start X in meters.
+   * @param fromY Start Y in meters.
+   * @param toX   End X in meters.
+   * @param toY   End Y in meters.
+   * @return Whether no cell on the segment is blocked.
+   */
+  public boolean hasLineOfSight(double fromX, double fromY, double toX, double toY) {
+    double dx = toX - fromX;
+    double dy = toY - fromY;
+    int steps = (int) Math.ceil(Math.hypot(dx, dy) / (resolution * 0.5));
+    for (int i = 0; i <= steps; i++) {
+      double fraction = steps == 0 ? 0.0 : (double) i / steps;
+      if (blocked[cellAt(fromX + dx * fraction, fromY + dy * fraction)]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
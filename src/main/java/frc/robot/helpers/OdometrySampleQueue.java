@@ -0,0 +1,145 @@
+package frc.robot.helpers;
+
+/**
+ * Lock-free single-producer, single-consumer queue of timestamped odometry
+ * samples. Each sample is packed into one record of a
+ * {@link DoubleRecordQueue}, so neither the odometry thread writing them nor
+ * the main loop reading them creates garbage or waits on a lock. When the
+ * queue is full new samples are dropped and counted.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * OdometrySampleQueue queue = new OdometrySampleQueue(64, 4);
+ * OdometrySampleQueue.Sample sample = queue.newSample();
+ *
+ * // Odometry thread
+ * queue.offer(timestamp, yawRadians, distances, angles, velocities);
+ *
+ * // Main loop
+ * while (queue.poll(sample)) {
+ *   poseEstimator.updateWithTime(sample.timestamp, ...);
+ * }
+ * }</pre>
+ */
+public final class OdometrySampleQueue {
+  /** Index of the FPGA timestamp in a record. */
+  private static final int TIMESTAMP = 0;
+
+  /** Index of the gyro yaw in a record. */
+  private static final int YAW = 1;
+
+  /** Index of the first module drive distance in a record. */
+  private static final int DISTANCES = 2;
+
+  /** Number of swerve modules per sample. */
+  private final int moduleCount;
+
+  /** Packed samples: timestamp, yaw, then the distances, angles and velocities. */
+  private final DoubleRecordQueue records;
+
+  /** Record being packed, only used by the producer. */
+  private final double[] producerRecord;
+
+  /** Record being unpacked, only used by the consumer. */
+  private final double[] consumerRecord;
+
+  /**
+   * Creates a new queue.
+   *
+   * @param capacity    Number of samples the queue can hold, must be a power of
+   *                    two.
+   * @param moduleCount Number of swerve modules per sample.
+   */
+  public OdometrySampleQueue(int capacity, int moduleCount) {
+    this.moduleCount = moduleCount;
+    records = new DoubleRecordQueue(capacity, DISTANCES + 3 * moduleCount);
+    producerRecord = new double[records.getWidth()];
+    consumerRecord = new double[records.getWidth()];
+  }
+
+  /**
+   * Create a sample sized for this queue to read into.
+   *
+   * @return A new, reusable sample.
+   */
+  public Sample newSample() {
+    return new Sample(moduleCount);
+  }
+
+  /**
+   * Add a sample. Must only be called from the producer thread.
+   *
+   * @param timestamp  FPGA timestamp in seconds.
+   * @param yaw        Gyro yaw in radians.
+   * @param distance   Module drive distances in meters.
+   * @param angle      Module angles in radians.
+   * @param velocity   Module velocities in meters per second.
+   * @return False if the queue was full and the sample was dropped.
+   */
+  public boolean offer(double timestamp, double yaw, double[] distance, double[] angle, double[] velocity) {
+    producerRecord[TIMESTAMP] = timestamp;
+    producerRecord[YAW] = yaw;
+    System.arraycopy(distance, 0, producerRecord, DISTANCES, moduleCount);
+    System.arraycopy(angle, 0, producerRecord, DISTANCES + moduleCount, moduleCount);
+    System.arraycopy(velocity, 0, producerRecord, DISTANCES + 2 * moduleCount, moduleCount);
+    return records.offer(producerRecord);
+  }
+
+  /**
+   * Remove the oldest sample. Must only be called from the consumer thread.
+   *
+   * @param out Sample to copy into.
+   * @return False if the queue was empty.
+   */
+  public boolean poll(Sample out) {
+    if (!records.poll(consumerRecord)) {
+      return false;
+    }
+    out.timestamp = consumerRecord[TIMESTAMP];
+    out.yaw = consumerRecord[YAW];
+    System.arraycopy(consumerRecord, DISTANCES, out.distance, 0, moduleCount);
+    System.arraycopy(consumerRecord, DISTANCES + moduleCount, out.angle, 0, moduleCount);
+    System.arraycopy(consumerRecord, DISTANCES + 2 * moduleCount, out.velocity, 0, moduleCount);
+    return true;
+  }
+
+  /** Discard every queued sample. Must only be called from the consumer thread. */
+  public void clear() {
+    records.clear();
+  }
+
+  /**
+   * Get the number of samples dropped because the queue was full.
+   *
+   * @return The dropped sample count.
+   */
+  public long getDroppedCount() {
+    return records.getDroppedCount();
+  }
+
+  /** A single odometry sample, reused by the consumer. */
+  public static final class Sample {
+    /** FPGA timestamp in seconds. */
+    public double timestamp;
+
+    /** Gyro yaw in radians. */
+    public double yaw;
+
+    /** Module drive distances in meters. */
+    public final double[] distance;
+
+    /** Module angles in radians. */
+    public final double[] angle;
+
+    /** Module velocities in meters per second. */
+    public final double[] velocity;
+
+    private Sample(int moduleCount) {
+      distance = new double[moduleCount];
+      angle = new double[moduleCount];
+      velocity = new double[moduleCount];
+    }
+  }
+}
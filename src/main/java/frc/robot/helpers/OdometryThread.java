@@ -0,0 +1,132 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import swervelib.SwerveDrive;
+import swervelib.SwerveModule;
+import swervelib.telemetry.SwerveDriveTelemetry;
+
+/**
+ * Samples the swerve module encoders and the gyro on a dedicated
+ * {@link Notifier} thread, faster than the main loop, and pushes timestamped
+ * samples into an {@link OdometrySampleQueue}. The main loop drains the queue
+ * into the pose estimator, so pose quality no longer depends on main loop
+ * jitter and the CAN reads are off the main thread.
+ *
+ * <p>
+ * Starting this thread stops YAGSL's own odometry thread. In simulation the
+ * thread is not started, {@link #sampleNow()} is called after each physics
+ * step instead so runs do not depend on wall clock timing.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * OdometrySampleQueue queue = new OdometrySampleQueue(64, 4);
+ * OdometryThread odometryThread = new OdometryThread(drivebase, queue);
+ * odometryThread.start(250.0);
+ * }</pre>
+ */
+public final class OdometryThread {
+  /** Drive to sample. */
+  private final SwerveDrive drive;
+
+  /** Modules of the drive. */
+  private final SwerveModule[] modules;
+
+  /** Queue samples are written to. */
+  private final OdometrySampleQueue queue;
+
+  /** Notifier running {@link #sample()}. */
+  private final Notifier notifier;
+
+  /** Scratch module drive distances in meters. */
+  private final double[] distances;
+
+  /** Scratch module angles in radians. */
+  private final double[] angles;
+
+  /** Scratch module velocities in meters per second. */
+  private final double[] velocities;
+
+  /**
+   * Creates a new odometry thread. It does nothing until {@link #start(double)}
+   * is called.
+   *
+   * @param drive Drive to sample.
+   * @param queue Queue to write samples to, must hold one entry per module.
+   */
+  public OdometryThread(SwerveDrive drive, OdometrySampleQueue queue) {
+    this.drive = drive;
+    this.modules = drive.getModules();
+    this.queue = queue;
+    distances = new double[modules.length];
+    angles = new double[modules.length];
+    velocities = new double[modules.length];
+    notifier = new Notifier(this::sample);
+    notifier.setName("Odometry");
+  }
+
+  /**
+   * Stop YAGSL's odometry thread and start sampling. YAGSL's module telemetry
+   * and angle encoder synchronization ran from that thread. The module states
+   * and absolute encoders are published through the {@link TelemetryManager}
+   * instead, and the synchronization is queued by {@code Swerve.periodic()}.
+   *
+   * @param frequencyHz Sample rate in hertz.
+   */
+  public void start(double frequencyHz) {
+    drive.stopOdometryThread();
+    notifier.startPeriodic(1.0 / frequencyHz);
+  }
+
+  /** Stop sampling. YAGSL's odometry thread is not restarted. */
+  public void stop() {
+    notifier.stop();
+  }
+
+  /**
+   * Take one sample on the calling thread. Used by the simulation, which must
+   * not run {@link #start(double)} at the same time.
+   */
+  public void sampleNow() {
+    sample();
+  }
+
+  /**
+   * Read every module and the gyro once and queue the sample. The reads hold
+   * the drive's odometry lock, as YAGSL's own odometry thread does, and the
+   * main loop holds it while it commands or reads the modules, so the module
+   * caches are never used from both threads at once.
+   */
+  private void sample() {
+    double timestamp;
+    double yaw;
+    drive.odometryLock.lock();
+    try {
+      timestamp = RobotController.getFPGATime() / 1.0e6;
+
+      for (int i = 0; i < modules.length; i++) {
+        SwerveModule module = modules[i];
+        // YAGSL caches reads for a full main loop, refresh it to get fresh
+        // values. The main loop then reads the same fresh values.
+        module.invalidateCache();
+        SwerveModulePosition position = module.getPosition();
+        distances[i] = position.distanceMeters;
+        angles[i] = position.angle.getRadians();
+        velocities[i] = module.getState().speedMetersPerSecond;
+      }
+
+      // The simulated gyro only exists behind YAGSL's yaw, the real one is read
+      // directly to skip YAGSL's cache.
+      yaw = SwerveDriveTelemetry.isSimulation
+          ? drive.getYaw().getRadians()
+          : drive.getGyro().getRotation3d().getZ();
+    } finally {
+      drive.odometryLock.unlock();
+    }
+
+    queue.offer(timestamp, yaw, distances, angles, velocities);
+  }
+}
@@ -0,0 +1,197 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.OutputConstants;
+import frc.robot.helpers.LatencyTracker.Chain;
+import frc.robot.helpers.LatencyTracker.Stage;
+import java.util.ArrayList;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Collects actuator commands during the cycle and writes them in one phase at
+ * the end of it. Subsystems set an {@link Output} as often as they like, and
+ * {@link #flush()} only sends a CAN or JNI write when the value changed, or
+ * when the refresh interval passed since the last write so a lost frame is
+ * corrected.
+ *
+ * <p>
+ * An output can be tied to a latency {@link Chain}, which is marked as
+ * actuated when a changed value is written.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * OutputLayer.Output intake = OutputLayer.getInstance().output(intakeMotor::set, Chain.INTAKE);
+ * intake.set(0.5);
+ * }</pre>
+ */
+public final class OutputLayer {
+  /** Singleton instance. */
+  private static OutputLayer instance;
+
+  /**
+   * Gets the singleton instance of the output layer.
+   *
+   * @return The singleton instance.
+   */
+  public static OutputLayer getInstance() {
+    if (instance == null) {
+      instance = new OutputLayer();
+    }
+    return instance;
+  }
+
+  /** A single actuator command, written by {@link OutputLayer#flush()}. */
+  public static final class Output {
+    /** Sends the value to the hardware. */
+    private final DoubleConsumer writer;
+
+    /** Latency chain marked when a changed value is written, may be null. */
+    private final Chain chain;
+
+    /** Commanded value, NaN until the first command. */
+    private double value = Double.NaN;
+
+    /** Value last written to the hardware. */
+    private double writtenValue = Double.NaN;
+
+    /** FPGA time of the last write in microseconds. */
+    private long writtenMicros = 0;
+
+    private Output(DoubleConsumer writer, Chain chain) {
+      this.writer = writer;
+      this.chain = chain;
+    }
+
+    /**
+     * Command a value, written at the end of the cycle.
+     *
+     * @param value Value to write.
+     */
+    public void set(double value) {
+      this.value = value;
+    }
+
+    /**
+     * Command an on or off value, written as 1 or 0.
+     *
+     * @param value Value to write.
+     */
+    public void set(boolean value) {
+      this.value = value ? 1.0 : 0.0;
+    }
+
+    /**
+     * Get the commanded value, which may not be written yet.
+     *
+     * @return The commanded value, NaN if nothing was commanded.
+     */
+    public double get() {
+      return value;
+    }
+
+    /**
+     * Get the commanded on or off value, which may not be written yet.
+     *
+     * @return True if the commanded value is not 0.
+     */
+    public boolean getBoolean() {
+      return value != 0.0 && !Double.isNaN(value);
+    }
+  }
+
+  /** Refresh interval in microseconds. */
+  private static final long REFRESH_INTERVAL_MICROS = (long) (OutputConstants.REFRESH_INTERVAL_SECONDS * 1.0e6);
+
+  /** Number of cycles between NetworkTables updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Every output, in creation order. */
+  private final ArrayList<Output> outputs = new ArrayList<>();
+
+  /** Writes sent because a value changed. */
+  private long changedWrites = 0;
+
+  /** Writes sent because the refresh interval passed. */
+  private long refreshWrites = 0;
+
+  /** Writes skipped because nothing changed. */
+  private long suppressedWrites = 0;
+
+  /** Cycles since the last NetworkTables update. */
+  private int cyclesSincePublish = 0;
+
+  private final IntegerPublisher changedPublisher;
+  private final IntegerPublisher refreshPublisher;
+  private final IntegerPublisher suppressedPublisher;
+
+  private OutputLayer() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Outputs");
+    changedPublisher = table.getIntegerTopic("ChangedWrites").publish();
+    refreshPublisher = table.getIntegerTopic("RefreshWrites").publish();
+    suppressedPublisher = table.getIntegerTopic("SuppressedWrites").publish();
+  }
+
+  /**
+   * Create an output.
+   *
+   * @param writer Sends a value to the hardware.
+   * @return The new output.
+   */
+  public Output output(DoubleConsumer writer) {
+    return output(writer, null);
+  }
+
+  /**
+   * Create an output that marks a latency chain as actuated when a changed
+   * value is written.
+   *
+   * @param writer Sends a value to the hardware.
+   * @param chain  Chain to mark.
+   * @return The new output.
+   */
+  public Output output(DoubleConsumer writer, Chain chain) {
+    Output output = new Output(writer, chain);
+    outputs.add(output);
+    return output;
+  }
+
+  /** Write every output that changed or is due a refresh. Called every robot loop. */
+  public void flush() {
+    long nowMicros = RobotController.getFPGATime();
+    for (int i = 0; i < outputs.size(); i++) {
+      Output output = outputs.get(i);
+      if (Double.isNaN(output.value)) {
+        continue;
+      }
+
+      boolean changed = output.value != output.writtenValue;
+      if (changed) {
+        changedWrites++;
+      } else if (nowMicros - output.writtenMicros >= REFRESH_INTERVAL_MICROS) {
+        refreshWrites++;
+      } else {
+        suppressedWrites++;
+        continue;
+      }
+
+      output.writer.accept(output.value);
+      output.writtenValue = output.value;
+      output.writtenMicros = nowMicros;
+      if (changed && output.chain != null) {
+        LatencyTracker.getInstance().mark(output.chain, Stage.ACTUATION);
+      }
+    }
+
+    if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+      cyclesSincePublish = 0;
+      changedPublisher.set(changedWrites);
+      refreshPublisher.set(refreshWrites);
+      suppressedPublisher.set(suppressedWrites);
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+
+/**
+ * Fixed-capacity history of robot poses stored in primitive arrays, used to
+ * look up where the robot was at a past FPGA timestamp for latency
+ * compensation. Lookups are a binary search followed by linear interpolation.
+ *
+ * <p>
+ * There is a single writer, the main loop, and any number of readers on other
+ * threads. Readers use a seqlock: they read without blocking and retry if the
+ * writer changed the history while they were reading, so the control loop never
+ * waits on a reader.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * double[] pose = new double[3];
+ * if (Swerve.getInstance().getPoseHistory().sample(captureTimestamp, pose)) {
+ *   double x = pose[0], y = pose[1], theta = pose[2];
+ * }
+ * }</pre>
+ */
+public final class PoseHistory {
+  /** Number of poses stored, a power of two. */
+  private final int capacity;
+
+  /** Mask turning a sequence number into a slot index. */
+  private final int mask;
+
+  /** FPGA timestamps in seconds, increasing with the sequence number. */
+  private final double[] timestamps;
+
+  /** X positions in meters. */
+  private final double[] xs;
+
+  /** Y positions in meters. */
+  private final double[] ys;
+
+  /** Rotations in radians. */
+  private final double[] thetas;
+
+  /** Sequence number of the next pose to write. */
+  private long head = 0;
+
+  /** Number of valid poses, at most {@link #capacity}. */
+  private int size = 0;
+
+  /** Seqlock version, odd while the writer is modifying the history. */
+  private volatile long version = 0;
+
+  /**
+   * Creates a new pose history.
+   *
+   * @param capacity Number of poses to keep, must be a power of two.
+   */
+  public PoseHistory(int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Pose history capacity must be a power of two");
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    timestamps = new double[capacity];
+    xs = new double[capacity];
+    ys = new double[capacity];
+    thetas = new double[capacity];
+  }
+
+  /**
+   * Add a pose. Must only be called from the writer thread. Poses older than the
+   * newest stored pose are ignored.
+   *
+   * @param timestamp FPGA timestamp in seconds.
+   * @param x         X position in meters.
+   * @param y         Y position in meters.
+   * @param theta     Rotation in radians.
+   */
+  public void add(double timestamp, double x, double y, double theta) {
+    if (size > 0 && timestamp <= timestamps[(int) ((head - 1) & mask)]) {
+      return;
+    }
+
+    beginWrite();
+    int slot = (int) (head & mask);
+    timestamps[slot] = timestamp;
+    xs[slot] = x;
+    ys[slot] = y;
+    thetas[slot] = theta;
+    head++;
+    if (size < capacity) {
+      size++;
+    }
+    endWrite();
+  }
+
+  /**
+   * Add a pose. Must only be called from the writer thread.
+   *
+   * @param timestamp FPGA timestamp in seconds.
+   * @param pose      Pose at the timestamp.
+   */
+  public void add(double timestamp, Pose2d pose) {
+    add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /** Remove every pose, for example after the odometry is reset. */
+  public void clear() {
+    beginWrite();
+    size = 0;
+    endWrite();
+  }
+
+  /** Mark the start of a write so readers retry. */
+  private void beginWrite() {
+    version++;
+    // Keep the data writes below from becoming visible before the odd version.
+    VarHandle.storeStoreFence();
+  }
+
+  /** Mark the end of a write. */
+  private void endWrite() {
+    // The volatile write publishes the data written since beginWrite.
+    version++;
+  }
+
+  /**
+   * Get the interpolated pose at a timestamp. Timestamps newer than the latest
+   * pose return the latest pose. Safe to call from any thread.
+   *
+   * @param timestamp FPGA timestamp in seconds.
+   * @param out       Array of at least 3 elements that receives x and y in meters
+   *                  and rotation in radians.
+   * @return False if the history is empty or the timestamp is older than the
+   *         oldest pose.
+   */
+  public boolean sample(double timestamp, double[] out) {
+    while (true) {
+      long startVersion = version;
+      if ((startVersion & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+
+      boolean found = read(timestamp, out);
+
+      // Order the reads above before checking the version again.
+      VarHandle.loadLoadFence();
+      if (version == startVersion) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * Get the interpolated pose at a timestamp as a {@link Pose2d}. This
+   * allocates, prefer {@link #sample(double, double[])} in the main loop.
+   *
+   * @param timestamp FPGA timestamp in seconds.
+   * @return The pose, or empty if it is not in the history.
+   */
+  public Optional<Pose2d> getPose(double timestamp) {
+    double[] pose = new double[3];
+    if (!sample(timestamp, pose)) {
+      return Optional.empty();
+    }
+    return Optional.of(new Pose2d(pose[0], pose[1], new Rotation2d(pose[2])));
+  }
+
+  /**
+   * Get the latest pose. Safe to call from any thread.
+   *
+   * @param out Array of at least 3 elements that receives x and y in meters and
+   *            rotation in radians.
+   * @return False if the history is empty.
+   */
+  public boolean getLatest(double[] out) {
+    return sample(Double.POSITIVE_INFINITY, out);
+  }
+
+  /**
+   * Interpolate without synchronization, the caller validates the result.
+   *
+   * @param timestamp FPGA timestamp in seconds.
+   * @param out       Output x, y and rotation.
+   * @return False if the pose is not in the history.
+   */
+  private boolean read(double timestamp, double[] out) {
+    int count = Math.min(size, capacity);
+    if (count == 0) {
+      return false;
+    }
+    long newest = head - 1;
+    long oldest = head - count;
+
+    int newestSlot = (int) (newest & mask);
+    if (timestamp >= timestamps[newestSlot]) {
+      out[0] = xs[newestSlot];
+      out[1] = ys[newestSlot];
+      out[2] = thetas[newestSlot];
+      return true;
+    }
+    if (timestamp < timestamps[(int) (oldest & mask)]) {
+      return false;
+    }
+
+    // Find the first pose newer than the timestamp.
+    long low = oldest;
+    long high = newest;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (timestamps[(int) (mid & mask)] <= timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    int after = (int) (low & mask);
+    int before = (int) ((low - 1) & mask);
+    double span = timestamps[after] - timestamps[before];
+    double t = span > 0 ? (timestamp - timestamps[before]) / span : 0;
+
+    out[0] = xs[before] + (xs[after] - xs[before]) * t;
+    out[1] = ys[before] + (ys[after] - ys[before]) * t;
+    out[2] = MathUtil.angleModulus(
+        thetas[before] + MathUtil.angleModulus(thetas[after] - thetas[before]) * t);
+    return true;
+  }
+}
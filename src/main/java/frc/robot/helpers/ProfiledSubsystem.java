@@ -0,0 +1,39 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+/**
+ * Base class of every subsystem. The scheduler calls {@link #periodic()}, which
+ * is final and times {@link #profiledPeriodic()} with a {@link LoopProfiler}
+ * section published under {@code Robot/Profiler/Subsystems/<name>}, so every
+ * subsystem is profiled the same way whether its periodic does anything or
+ * not. Extend this instead of {@code SubsystemBase}.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * public class Climb extends ProfiledSubsystem {
+ *   @Override
+ *   protected void profiledPeriodic() {
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ */
+public abstract class ProfiledSubsystem extends SubsystemBase {
+  /** Profiler section for {@link #periodic()}. */
+  private final LoopProfiler.Section profile = LoopProfiler.getInstance().subsystemSection(getName());
+
+  /** Time the subsystem's periodic work. Called by the scheduler every loop. */
+  @Override
+  public final void periodic() {
+    profile.start();
+    profiledPeriodic();
+    profile.stop();
+  }
+
+  /** Periodic work of the subsystem, timed by {@link #periodic()}. Does nothing by default. */
+  protected void profiledPeriodic() {
+  }
+}
@@ -0,0 +1,263 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Constants.AlignConstants;
+import frc.robot.Constants.FieldConstants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every pose the robot scores or picks up coral from, for both alliances, with
+ * a grid index answering which is nearest to a point. The poses are the twelve
+ * reef branches, lettered counterclockwise from the face towards the alliance
+ * wall, and three slots on each coral station, with the robot's front bumper
+ * against the element. Red poses are the blue ones rotated about the field
+ * center.
+ *
+ * <p>
+ * Each cell of the grid keeps the few poses that can be nearest to some point
+ * in it, found when the index is built, so a lookup compares a handful of
+ * distances, takes constant time and allocates nothing. Only the poses of the
+ * given alliance are candidates, the others cannot be scored on.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * ScoringPoseIndex poses = ScoringPoseIndex.getInstance();
+ * int nearest = poses.nearest(pose.getX(), pose.getY(), isRed);
+ * Pose2d target = poses.getPose(nearest, isRed);
+ * }</pre>
+ */
+public final class ScoringPoseIndex {
+  /** Singleton instance. */
+  private static ScoringPoseIndex instance;
+
+  /**
+   * Gets the singleton instance of the scoring pose index.
+   *
+   * @return The singleton instance.
+   */
+  public static synchronized ScoringPoseIndex getInstance() {
+    if (instance == null) {
+      instance = new ScoringPoseIndex();
+    }
+    return instance;
+  }
+
+  /** Letters of the reef branches. */
+  private static final String BRANCHES = "ABCDEFGHIJKL";
+
+  /** Pickup slots on each coral station. */
+  private static final int STATION_SLOTS = 3;
+
+  private final String[] names;
+  private final Pose2d[] bluePoses;
+  private final Pose2d[] redPoses;
+
+  /** Blue pose positions, the index works in blue coordinates. */
+  private final double[] xs;
+  private final double[] ys;
+
+  private final double cellSize = AlignConstants.INDEX_CELL_METERS;
+  private final int columns;
+  private final int rows;
+
+  /** Start of each cell's candidates in {@link #candidates}, one extra at the end. */
+  private final int[] cellStarts;
+
+  /** Candidate pose indices of every cell, one cell after another. */
+  private final int[] candidates;
+
+  private ScoringPoseIndex() {
+    List<String> poseNames = new ArrayList<>();
+    List<Pose2d> poses = new ArrayList<>();
+    addReefPoses(poseNames, poses);
+    addStationPoses(poseNames, poses);
+
+    names = poseNames.toArray(new String[0]);
+    bluePoses = poses.toArray(new Pose2d[0]);
+    redPoses = new Pose2d[bluePoses.length];
+    xs = new double[bluePoses.length];
+    ys = new double[bluePoses.length];
+    for (int i = 0; i < bluePoses.length; i++) {
+      Pose2d blue = bluePoses[i];
+      xs[i] = blue.getX();
+      ys[i] = blue.getY();
+      redPoses[i] = new Pose2d(
+          FieldConstants.FIELD_LENGTH_METERS - blue.getX(),
+          FieldConstants.FIELD_WIDTH_METERS - blue.getY(),
+          blue.getRotation().rotateBy(Rotation2d.k180deg));
+    }
+
+    columns = (int) Math.ceil(FieldConstants.FIELD_LENGTH_METERS / cellSize);
+    rows = (int) Math.ceil(FieldConstants.FIELD_WIDTH_METERS / cellSize);
+    cellStarts = new int[columns * rows + 1];
+    List<Integer> cellCandidates = new ArrayList<>();
+    for (int cell = 0; cell < columns * rows; cell++) {
+      cellStarts[cell] = cellCandidates.size();
+      addCandidates(cell, cellCandidates);
+    }
+    cellStarts[columns * rows] = cellCandidates.size();
+    candidates = cellCandidates.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Add the blue reef branch poses, facing the reef.
+   *
+   * @param poseNames Names to add to.
+   * @param poses     Poses to add to.
+   */
+  private static void addReefPoses(List<String> poseNames, List<Pose2d> poses) {
+    double reach = FieldConstants.REEF_APOTHEM_METERS + AlignConstants.BUMPER_HALF_LENGTH_METERS;
+    for (int face = 0; face < 6; face++) {
+      // Starting with the face towards the alliance wall.
+      double angle = Math.PI + face * Math.PI / 3;
+      double normalX = Math.cos(angle);
+      double normalY = Math.sin(angle);
+      for (int side = 0; side < 2; side++) {
+        double offset = (side == 0 ? -1 : 1) * FieldConstants.REEF_BRANCH_OFFSET_METERS;
+        poseNames.add("Reef " + BRANCHES.charAt(2 * face + side));
+        poses.add(new Pose2d(
+            FieldConstants.REEF_CENTER_X_METERS + reach * normalX - offset * normalY,
+            FieldConstants.REEF_CENTER_Y_METERS + reach * normalY + offset * normalX,
+            Rotation2d.fromRadians(MathUtil.angleModulus(angle + Math.PI))));
+      }
+    }
+  }
+
+  /**
+   * Add the blue coral station slots, facing the station.
+   *
+   * @param poseNames Names to add to.
+   * @param poses     Poses to add to.
+   */
+  private static void addStationPoses(List<String> poseNames, List<Pose2d> poses) {
+    double length = FieldConstants.CORAL_STATION_LENGTH_METERS;
+    double width = FieldConstants.CORAL_STATION_WIDTH_METERS;
+    double hypot = Math.hypot(length, width);
+    // Normal into the field and direction along the lower station.
+    double normalX = width / hypot;
+    double normalY = length / hypot;
+    double alongX = -length / hypot;
+    double alongY = width / hypot;
+    double heading = Math.atan2(-normalY, -normalX);
+
+    for (int slot = 0; slot < STATION_SLOTS; slot++) {
+      double offset = (slot - (STATION_SLOTS - 1) / 2.0) * FieldConstants.CORAL_STATION_SLOT_SPACING_METERS;
+      double x = length / 2 + offset * alongX + AlignConstants.BUMPER_HALF_LENGTH_METERS * normalX;
+      double y = width / 2 + offset * alongY + AlignConstants.BUMPER_HALF_LENGTH_METERS * normalY;
+      poseNames.add("Right Station " + (slot + 1));
+      poses.add(new Pose2d(x, y, Rotation2d.fromRadians(heading)));
+      poseNames.add("Left Station " + (slot + 1));
+      poses.add(new Pose2d(x, FieldConstants.FIELD_WIDTH_METERS - y,
+          Rotation2d.fromRadians(-heading)));
+    }
+  }
+
+  /**
+   * Add the poses that can be nearest to some point of a cell: those whose
+   * closest distance to the cell is within the farthest distance of the best
+   * other pose.
+   *
+   * @param cell           Cell index.
+   * @param cellCandidates Candidates to add to.
+   */
+  private void addCandidates(int cell, List<Integer> cellCandidates) {
+    double minX = (cell % columns) * cellSize;
+    double minY = (cell / columns) * cellSize;
+    double maxX = minX + cellSize;
+    double maxY = minY + cellSize;
+
+    double bestFarthest = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < xs.length; i++) {
+      double dx = Math.max(Math.abs(xs[i] - minX), Math.abs(xs[i] - maxX));
+      double dy = Math.max(Math.abs(ys[i] - minY), Math.abs(ys[i] - maxY));
+      bestFarthest = Math.min(bestFarthest, Math.hypot(dx, dy));
+    }
+    for (int i = 0; i < xs.length; i++) {
+      double dx = Math.max(0.0, Math.max(minX - xs[i], xs[i] - maxX));
+      double dy = Math.max(0.0, Math.max(minY - ys[i], ys[i] - maxY));
+      if (Math.hypot(dx, dy) <= bestFarthest) {
+        cellCandidates.add(i);
+      }
+    }
+  }
+
+  /**
+   * Find the pose of an alliance nearest to a point.
+   *
+   * @param x   X in meters.
+   * @param y   Y in meters.
+   * @param red Whether to look among the red alliance's poses.
+   * @return Index of the nearest pose.
+   */
+  public int nearest(double x, double y, boolean red) {
+    if (red) {
+      x = FieldConstants.FIELD_LENGTH_METERS - x;
+      y = FieldConstants.FIELD_WIDTH_METERS - y;
+    }
+    x = MathUtil.clamp(x, 0.0, FieldConstants.FIELD_LENGTH_METERS);
+    y = MathUtil.clamp(y, 0.0, FieldConstants.FIELD_WIDTH_METERS);
+    int column = Math.min(columns - 1, (int) (x / cellSize));
+    int row = Math.min(rows - 1, (int) (y / cellSize));
+
+    int cell = row * columns + column;
+    int best = -1;
+    double bestDistance = Double.POSITIVE_INFINITY;
+    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+      int pose = candidates[i];
+      double dx = xs[pose] - x;
+      double dy = ys[pose] - y;
+      double distance = dx * dx + dy * dy;
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        best = pose;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Find the pose of an alliance nearest to a pose.
+   *
+   * @param pose Pose to search from.
+   * @param red  Whether to look among the red alliance's poses.
+   * @return The nearest pose.
+   */
+  public Pose2d nearestPose(Pose2d pose, boolean red) {
+    return getPose(nearest(pose.getX(), pose.getY(), red), red);
+  }
+
+  /**
+   * Get a pose.
+   *
+   * @param index Index of the pose.
+   * @param red   Whether to get the red alliance's pose.
+   * @return The pose.
+   */
+  public Pose2d getPose(int index, boolean red) {
+    return red ? redPoses[index] : bluePoses[index];
+  }
+
+  /**
+   * Get the name of a pose, the same for both alliances.
+   *
+   * @param index Index of the pose.
+   * @return The name, such as {@code "Reef A"} or {@code "Left Station 2"}.
+   */
+  public String getName(int index) {
+    return names[index];
+  }
+
+  /**
+   * Get the number of poses of an alliance.
+   *
+   * @return The number of poses.
+   */
+  public int getPoseCount() {
+    return bluePoses.length;
+  }
+}
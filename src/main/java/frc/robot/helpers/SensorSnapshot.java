@@ -0,0 +1,148 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.wpilibj.DoubleSolenoid;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.subsystems.Climb;
+import frc.robot.subsystems.CoralArm;
+import frc.robot.subsystems.CoralIntake;
+import frc.robot.subsystems.Pneumatics;
+
+/**
+ * Every sensor value of the current cycle. {@link #sense()} runs once at the
+ * start of each cycle, before the scheduler, and reads each sensor with a
+ * single JNI or CAN call into primitive fields. Subsystems, triggers and
+ * commands read the snapshot instead of the hardware, so they all see the same
+ * values for the whole cycle and repeated polls cost nothing. The solenoid
+ * states are what the code commanded, so they are taken from the
+ * {@link OutputLayer} outputs written at the end of the previous cycle instead
+ * of being read back from the pneumatic hub.
+ *
+ * <p>
+ * The drive encoders and gyro are not part of the snapshot, they are sampled
+ * by the odometry thread and drained by {@code Swerve} once per cycle.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * Trigger highCurrent = new Trigger(() -> SensorSnapshot.getInstance().getIntakeCurrent() > 15.0);
+ * }</pre>
+ */
+public final class SensorSnapshot {
+  /** Singleton instance. */
+  private static SensorSnapshot instance;
+
+  /**
+   * Gets the singleton instance of the sensor snapshot.
+   *
+   * @return The singleton instance.
+   */
+  public static SensorSnapshot getInstance() {
+    if (instance == null) {
+      instance = new SensorSnapshot();
+    }
+    return instance;
+  }
+
+  private final CoralIntake coralIntake = CoralIntake.getInstance();
+  private final CoralArm coralArm = CoralArm.getInstance();
+  private final Climb climb = Climb.getInstance();
+
+  /** FPGA time of the last {@link #sense()} in seconds. */
+  private double timestamp = 0.0;
+
+  /** Battery voltage in volts. */
+  private double batteryVoltage = 0.0;
+
+  /** Intake motor current in amps. */
+  private double intakeCurrent = 0.0;
+
+  /** Whether the coral presence limit switch is pressed. */
+  private boolean coralPresent = false;
+
+  /** Whether the pressure switch reports full pressure. */
+  private boolean pressureSwitch = false;
+
+  /** Commanded coral arm solenoid state. */
+  private boolean armSolenoid = false;
+
+  /** Commanded climb cylinder state. */
+  private DoubleSolenoid.Value climbCylinder = DoubleSolenoid.Value.kOff;
+
+  private SensorSnapshot() {
+  }
+
+  /** Read every sensor once. Called at the start of every robot loop. */
+  public void sense() {
+    timestamp = RobotController.getFPGATime() / 1.0e6;
+    batteryVoltage = RobotController.getBatteryVoltage();
+    intakeCurrent = coralIntake.readOutputCurrent();
+    coralPresent = coralIntake.readCoralPresent();
+    pressureSwitch = Pneumatics.hub.getPressureSwitch();
+    armSolenoid = coralArm.getCommandedSolenoidState();
+    climbCylinder = climb.getCommandedCylinderState();
+  }
+
+  /**
+   * Get when the snapshot was taken.
+   *
+   * @return FPGA timestamp in seconds.
+   */
+  public double getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Get the battery voltage.
+   *
+   * @return The voltage in volts.
+   */
+  public double getBatteryVoltage() {
+    return batteryVoltage;
+  }
+
+  /**
+   * Get the intake motor current.
+   *
+   * @return The current in amps.
+   */
+  public double getIntakeCurrent() {
+    return intakeCurrent;
+  }
+
+  /**
+   * Get whether the coral presence limit switch is pressed.
+   *
+   * @return True if the switch is pressed.
+   */
+  public boolean isCoralPresent() {
+    return coralPresent;
+  }
+
+  /**
+   * Get whether the pressure switch reports full pressure.
+   *
+   * @return True at full pressure.
+   */
+  public boolean isPressureSwitchSet() {
+    return pressureSwitch;
+  }
+
+  /**
+   * Get the commanded coral arm solenoid state.
+   *
+   * @return The solenoid state.
+   */
+  public boolean getArmSolenoid() {
+    return armSolenoid;
+  }
+
+  /**
+   * Get the commanded climb cylinder state.
+   *
+   * @return The solenoid state.
+   */
+  public DoubleSolenoid.Value getClimbCylinder() {
+    return climbCylinder;
+  }
+}
@@ -0,0 +1,111 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps the desktop simulation a fixed amount at a time, so a run only depends
+ * on its inputs and not on the wall clock. Simulated time is paused, and a
+ * clock thread repeatedly runs the world steps, the physics and the simulated
+ * sensors, then advances time by one loop period with
+ * {@link SimHooks#stepTiming(double)}. That returns once the robot loop and
+ * every {@code Notifier} due in the period have run, so the world and the
+ * robot code never run at the same time. The thread then waits for the wall
+ * clock, so the simulation still runs in real time for the driver station and
+ * the GUI.
+ *
+ * <p>
+ * Work that runs on its own thread on the robot, such as vision processing,
+ * is added as a world step in simulation, so it happens at the same point of
+ * every loop.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * // Subsystem constructor, in simulation
+ * SimulationClock.getInstance().addWorldStep(this::stepSimulation);
+ *
+ * // Robot.simulationInit()
+ * SimulationClock.getInstance().start();
+ * }</pre>
+ */
+public final class SimulationClock {
+  /** Singleton instance. */
+  private static SimulationClock instance;
+
+  /**
+   * Gets the singleton instance of the simulation clock.
+   *
+   * @return The singleton instance.
+   */
+  public static synchronized SimulationClock getInstance() {
+    if (instance == null) {
+      instance = new SimulationClock();
+    }
+    return instance;
+  }
+
+  /** Loop period in nanoseconds. */
+  private static final long PERIOD_NANOS = (long) (TimedRobot.kDefaultPeriod * 1.0e9);
+
+  /** Work run before every step of simulated time, in the order added. */
+  private final ArrayList<Runnable> worldSteps = new ArrayList<>();
+
+  /** Thread stepping the simulation, null until {@link #start()}. */
+  private Thread thread = null;
+
+  private SimulationClock() {
+  }
+
+  /**
+   * Add work to run before every step of simulated time. Call before
+   * {@link #start()}.
+   *
+   * @param step Work to run.
+   */
+  public void addWorldStep(Runnable step) {
+    worldSteps.add(step);
+  }
+
+  /**
+   * Run every world step once. Called by the clock thread, or by a test that
+   * steps the robot loop itself.
+   */
+  public void stepWorld() {
+    for (int i = 0; i < worldSteps.size(); i++) {
+      worldSteps.get(i).run();
+    }
+  }
+
+  /** Pause simulated time and start stepping it. Does nothing if already started. */
+  public void start() {
+    if (thread != null) {
+      return;
+    }
+    SimHooks.pauseTiming();
+    thread = new Thread(this::run, "SimulationClock");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Step the world and the robot loop at the wall clock rate. */
+  private void run() {
+    long nextNanos = System.nanoTime();
+    while (true) {
+      stepWorld();
+      SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+
+      nextNanos += PERIOD_NANOS;
+      long waitNanos = nextNanos - System.nanoTime();
+      if (waitNanos > 0) {
+        LockSupport.parkNanos(waitNanos);
+      } else {
+        // Running behind the wall clock, carry on without bursting to catch up.
+        nextNanos = System.nanoTime();
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the robot startup as named phases with dependencies. Background phases
+ * start on a thread pool as soon as the phases they depend on are done, so
+ * independent device configuration and config parsing overlap. Main thread
+ * phases, such as creating the subsystems, which register with the
+ * non-thread-safe command scheduler, run in {@link #await()}.
+ *
+ * <p>
+ * The start and duration of every phase are written to the console and the
+ * data log, and published under {@code Robot/Startup}, along with the time
+ * from JVM start until startup finished.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * StartupOrchestrator startup = new StartupOrchestrator();
+ * startup.phase("FieldLayout", Vision::prepare);
+ * startup.phase("SwerveDrive", Swerve::prepare);
+ * startup.mainThreadPhase("Subsystems", () -> robotContainer = new RobotContainer(), "FieldLayout", "SwerveDrive");
+ * startup.await();
+ * }</pre>
+ */
+public final class StartupOrchestrator {
+  /** Background threads, phases mostly wait on CAN so this exceeds the core count. */
+  private static final int THREAD_COUNT = 4;
+
+  /** A startup phase. */
+  private static final class Phase {
+    private final String name;
+    private final Runnable work;
+    private final String[] dependencies;
+    private final boolean mainThread;
+    private CompletableFuture<Void> future;
+
+    /** Start time relative to the orchestrator in nanoseconds. */
+    private long startNanos = -1;
+
+    /** Duration in nanoseconds. */
+    private long durationNanos = -1;
+
+    private Phase(String name, Runnable work, String[] dependencies, boolean mainThread) {
+      this.name = name;
+      this.work = work;
+      this.dependencies = dependencies;
+      this.mainThread = mainThread;
+    }
+  }
+
+  private final long createdNanos = System.nanoTime();
+  private final Map<String, Phase> phases = new LinkedHashMap<>();
+  private final ExecutorService executor;
+
+  /** Creates a new orchestrator with its own thread pool. */
+  public StartupOrchestrator() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+      Thread thread = new Thread(runnable, "Startup-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Add a phase that runs on a background thread once its dependencies are
+   * done.
+   *
+   * @param name         Name of the phase.
+   * @param work         Work of the phase.
+   * @param dependencies Names of the phases that must finish first, already
+   *                     added.
+   */
+  public void phase(String name, Runnable work, String... dependencies) {
+    Phase phase = add(name, work, dependencies, false);
+    phase.future = dependenciesOf(phase).thenRunAsync(() -> runTimed(phase), executor);
+  }
+
+  /**
+   * Add a phase that runs on the calling thread in {@link #await()}, in the
+   * order main thread phases were added, once its dependencies are done.
+   *
+   * @param name         Name of the phase.
+   * @param work         Work of the phase.
+   * @param dependencies Names of the phases that must finish first, already
+   *                     added.
+   */
+  public void mainThreadPhase(String name, Runnable work, String... dependencies) {
+    Phase phase = add(name, work, dependencies, true);
+    phase.future = new CompletableFuture<>();
+  }
+
+  /**
+   * Create a phase and check its dependencies exist.
+   *
+   * @param name         Name of the phase.
+   * @param work         Work of the phase.
+   * @param dependencies Names of its dependencies.
+   * @param mainThread   Whether it runs on the main thread.
+   * @return The new phase.
+   */
+  private Phase add(String name, Runnable work, String[] dependencies, boolean mainThread) {
+    if (phases.containsKey(name)) {
+      throw new IllegalArgumentException("Startup phase " + name + " already exists");
+    }
+    for (String dependency : dependencies) {
+      if (!phases.containsKey(dependency)) {
+        throw new IllegalArgumentException("Startup phase " + name + " depends on unknown phase " + dependency);
+      }
+    }
+    Phase phase = new Phase(name, work, dependencies, mainThread);
+    phases.put(name, phase);
+    return phase;
+  }
+
+  /**
+   * Get a future completing when every dependency of a phase is done.
+   *
+   * @param phase Phase to check.
+   * @return The combined future.
+   */
+  private CompletableFuture<Void> dependenciesOf(Phase phase) {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[phase.dependencies.length];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = phases.get(phase.dependencies[i]).future;
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  /**
+   * Run a phase and record its timing.
+   *
+   * @param phase Phase to run.
+   */
+  private void runTimed(Phase phase) {
+    long start = System.nanoTime();
+    phase.startNanos = start - createdNanos;
+    phase.work.run();
+    phase.durationNanos = System.nanoTime() - start;
+  }
+
+  /**
+   * Run the main thread phases, wait for every phase and report the timing.
+   *
+   * @throws RuntimeException if a phase failed, with the phase's exception as
+   *                          the cause.
+   */
+  public void await() {
+    try {
+      for (Phase phase : phases.values()) {
+        if (!phase.mainThread) {
+          continue;
+        }
+        try {
+          dependenciesOf(phase).join();
+          runTimed(phase);
+          phase.future.complete(null);
+        } catch (RuntimeException e) {
+          phase.future.completeExceptionally(e);
+          throw e;
+        }
+      }
+      for (Phase phase : phases.values()) {
+        phase.future.join();
+      }
+    } catch (CompletionException e) {
+      throw new RuntimeException("Robot startup failed", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+    report();
+  }
+
+  /** Log and publish the timing of every phase. */
+  private void report() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Startup");
+    ArrayList<String> lines = new ArrayList<>();
+    for (Phase phase : phases.values()) {
+      double startMs = phase.startNanos / 1.0e6;
+      double durationMs = phase.durationNanos / 1.0e6;
+      lines.add(String.format("  %-16s start %8.1f ms  took %8.1f ms%s",
+          phase.name, startMs, durationMs, phase.mainThread ? "  (main thread)" : ""));
+      NetworkTable phaseTable = table.getSubTable(phase.name);
+      phaseTable.getEntry("StartMs").setDouble(startMs);
+      phaseTable.getEntry("DurationMs").setDouble(durationMs);
+    }
+
+    double totalMs = (System.nanoTime() - createdNanos) / 1.0e6;
+    long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+    table.getEntry("TotalMs").setDouble(totalMs);
+    table.getEntry("ReadyAfterJvmStartMs").setDouble(uptimeMs);
+
+    DataLogManager.log(String.format("Startup finished in %.1f ms, %d ms after JVM start:%n%s",
+        totalMs, uptimeMs, String.join(System.lineSeparator(), lines)));
+  }
+}
@@ -0,0 +1,162 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.RawLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.subsystems.Swerve;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Records the robot state to the WPILib {@link DataLog} every loop. Pose,
+ * chassis speeds and module states are written as struct entries, so
+ * AdvantageScope shows them as geometry. They are encoded directly from
+ * primitives into one reused buffer, so recording creates no garbage and
+ * does not go through NetworkTables.
+ *
+ * <p>
+ * The time spent recording is published under {@code Robot/Recorder}.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * // In Robot.robotPeriodic(), after the scheduler has run
+ * StateRecorder.getInstance().periodic();
+ * }</pre>
+ */
+public final class StateRecorder {
+  /** Singleton instance. */
+  private static StateRecorder instance;
+
+  /**
+   * Gets the singleton instance of the state recorder.
+   *
+   * @return The singleton instance.
+   */
+  public static StateRecorder getInstance() {
+    if (instance == null) {
+      instance = new StateRecorder();
+    }
+    return instance;
+  }
+
+  /** Number of cycles between cost updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Histogram bucket width in microseconds. */
+  private static final long BUCKET_WIDTH_MICROS = 10;
+
+  /** Histogram bucket count, covering 5 ms. */
+  private static final int BUCKET_COUNT = 500;
+
+  private final Swerve swerve = Swerve.getInstance();
+  private final SensorSnapshot sensors = SensorSnapshot.getInstance();
+
+  private final RawLogEntry poseEntry;
+  private final RawLogEntry speedsEntry;
+  private final RawLogEntry moduleStatesEntry;
+  private final BooleanLogEntry armSolenoidEntry;
+  private final IntegerLogEntry climbSolenoidEntry;
+  private final DoubleLogEntry intakeCurrentEntry;
+
+  /** Encode buffer, large enough for the biggest entry. */
+  private final byte[] bytes;
+
+  /** Little endian view of {@link #bytes}, as structs are encoded. */
+  private final ByteBuffer buffer;
+
+  /** Scratch pose x, y and rotation. */
+  private final double[] pose = new double[3];
+
+  /** Scratch chassis speeds vx, vy and omega. */
+  private final double[] speeds = new double[3];
+
+  /** Scratch module speeds. */
+  private final double[] moduleSpeeds;
+
+  /** Scratch module angles. */
+  private final double[] moduleAngles;
+
+  /** Recording time. */
+  private final LatencyHistogram costHistogram = new LatencyHistogram(BUCKET_WIDTH_MICROS, BUCKET_COUNT);
+
+  private final DoublePublisher p99Publisher;
+  private final DoublePublisher maxPublisher;
+
+  /** Cycles since the last cost update. */
+  private int cyclesSincePublish = 0;
+
+  private StateRecorder() {
+    DataLog log = DataLogManager.getLog();
+    log.addSchema(Pose2d.struct);
+    log.addSchema(ChassisSpeeds.struct);
+    log.addSchema(SwerveModuleState.struct);
+
+    poseEntry = new RawLogEntry(log, "/Robot/Pose", "", Pose2d.struct.getTypeString());
+    speedsEntry = new RawLogEntry(log, "/Robot/ChassisSpeeds", "", ChassisSpeeds.struct.getTypeString());
+    moduleStatesEntry = new RawLogEntry(
+        log, "/Robot/ModuleStates", "", SwerveModuleState.struct.getTypeString() + "[]");
+    armSolenoidEntry = new BooleanLogEntry(log, "/Robot/CoralArm/Solenoid");
+    climbSolenoidEntry = new IntegerLogEntry(log, "/Robot/Climb/Solenoid");
+    intakeCurrentEntry = new DoubleLogEntry(log, "/Robot/CoralIntake/CurrentAmps");
+
+    int moduleCount = swerve.getSwerveDrive().getModules().length;
+    moduleSpeeds = new double[moduleCount];
+    moduleAngles = new double[moduleCount];
+    bytes = new byte[Math.max(Pose2d.struct.getSize(), moduleCount * SwerveModuleState.struct.getSize())];
+    buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Recorder");
+    p99Publisher = table.getDoubleTopic("p99Ms").publish();
+    maxPublisher = table.getDoubleTopic("maxMs").publish();
+  }
+
+  /** Record every signal. Called every robot loop. */
+  public void periodic() {
+    long startMicros = RobotController.getFPGATime();
+
+    // Pose2d is Translation2d(x, y) then Rotation2d(value).
+    if (swerve.getPoseHistory().getLatest(pose)) {
+      buffer.putDouble(0, pose[0]);
+      buffer.putDouble(8, pose[1]);
+      buffer.putDouble(16, pose[2]);
+      poseEntry.append(bytes, 0, 24);
+    }
+
+    swerve.getRobotVelocity(speeds);
+    buffer.putDouble(0, speeds[0]);
+    buffer.putDouble(8, speeds[1]);
+    buffer.putDouble(16, speeds[2]);
+    speedsEntry.append(bytes, 0, 24);
+
+    // Each SwerveModuleState is the speed then Rotation2d(value).
+    swerve.getModuleStates(moduleSpeeds, moduleAngles);
+    for (int i = 0; i < moduleSpeeds.length; i++) {
+      buffer.putDouble(i * 16, moduleSpeeds[i]);
+      buffer.putDouble(i * 16 + 8, moduleAngles[i]);
+    }
+    moduleStatesEntry.append(bytes, 0, moduleSpeeds.length * 16);
+
+    armSolenoidEntry.append(sensors.getArmSolenoid());
+    climbSolenoidEntry.append(sensors.getClimbCylinder().ordinal());
+    intakeCurrentEntry.append(sensors.getIntakeCurrent());
+
+    costHistogram.record(RobotController.getFPGATime() - startMicros);
+    if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+      cyclesSincePublish = 0;
+      p99Publisher.set(costHistogram.getPercentile(0.99) / 1000.0);
+      maxPublisher.set(costHistogram.getMax() / 1000.0);
+    }
+  }
+}
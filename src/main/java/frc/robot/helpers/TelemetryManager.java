@@ -0,0 +1,226 @@
+package frc.robot.helpers;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import java.util.ArrayList;
+import swervelib.telemetry.SwerveDriveTelemetry;
+import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+
+/**
+ * Publishes telemetry signals at a rate set by the active {@link Tier}. Every
+ * signal is registered with its own publish period for each tier, so the same
+ * code can stream everything in the pits and only the essentials on the field.
+ *
+ * <p>
+ * The tier is picked at runtime with the "Telemetry Tier" chooser, and is
+ * forced to {@link Tier#MINIMAL} while the FMS is attached. The tier also sets
+ * YAGSL's {@link TelemetryVerbosity}.
+ *
+ * <p>
+ * The time spent publishing is recorded separately for each tier, and
+ * published under {@code Robot/Telemetry/Cost/<Tier>} with the estimated
+ * NetworkTables bandwidth of the tier, so tiers can be compared.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * DoublePublisher pressure = table.getDoubleTopic("Pressure").publish();
+ * // Off when minimal, 10 Hz for matches and 50 Hz in full.
+ * TelemetryManager.getInstance().register("Pressure", 8, () -> pressure.set(hub.getPressure(0)), 0, 5, 1);
+ * }</pre>
+ */
+public final class TelemetryManager {
+  /** Singleton instance. */
+  private static TelemetryManager instance;
+
+  /**
+   * Gets the singleton instance of the telemetry manager.
+   *
+   * @return The singleton instance.
+   */
+  public static TelemetryManager getInstance() {
+    if (instance == null) {
+      instance = new TelemetryManager();
+    }
+    return instance;
+  }
+
+  /** How much telemetry is published, from least to most. */
+  public enum Tier {
+    /** Only what the drive team needs, used on the field. */
+    MINIMAL("Minimal", TelemetryVerbosity.NONE),
+    /** Enough to debug a match afterwards. */
+    MATCH("Match", TelemetryVerbosity.LOW),
+    /** Everything at full rate, used in the pits. */
+    FULL("Full", TelemetryVerbosity.HIGH);
+
+    /** Name used for NetworkTables and the chooser. */
+    private final String displayName;
+
+    /** YAGSL verbosity used with this tier. */
+    private final TelemetryVerbosity swerveVerbosity;
+
+    Tier(String displayName, TelemetryVerbosity swerveVerbosity) {
+      this.displayName = displayName;
+      this.swerveVerbosity = swerveVerbosity;
+    }
+  }
+
+  /** A registered signal. */
+  private static final class Signal {
+    /** Approximate size of one update in bytes. */
+    private final int payloadBytes;
+
+    /** Publish period in loop cycles for each tier, 0 when off. */
+    private final int[] periods;
+
+    /** Publishes the signal. */
+    private final Runnable publisher;
+
+    private Signal(int payloadBytes, int[] periods, Runnable publisher) {
+      this.payloadBytes = payloadBytes;
+      this.periods = periods;
+      this.publisher = publisher;
+    }
+  }
+
+  /** Approximate NetworkTables framing per update: topic id, timestamp and type. */
+  private static final int MESSAGE_OVERHEAD_BYTES = 12;
+
+  /** Number of cycles between cost updates. */
+  private static final int PUBLISH_PERIOD_CYCLES = 50;
+
+  /** Histogram bucket width in microseconds. */
+  private static final long BUCKET_WIDTH_MICROS = 10;
+
+  /** Histogram bucket count, covering 10 ms. */
+  private static final int BUCKET_COUNT = 1000;
+
+  /** Registered signals. */
+  private final ArrayList<Signal> signals = new ArrayList<>();
+
+  /** Chooser for the tier used when the FMS is not attached. */
+  private final SendableChooser<Tier> tierChooser = new SendableChooser<>();
+
+  /** Tier used this cycle. */
+  private Tier tier = null;
+
+  /** Cycles since the robot started. */
+  private long cycle = 0;
+
+  /** Cycles since the last cost update. */
+  private int cyclesSincePublish = 0;
+
+  /** Publishing time of each tier. */
+  private final LatencyHistogram[] costHistograms = new LatencyHistogram[Tier.values().length];
+
+  /** Estimated bandwidth of each tier in bytes per second. */
+  private final double[] bytesPerSecond = new double[Tier.values().length];
+
+  private final DoublePublisher[] p50Publishers = new DoublePublisher[Tier.values().length];
+  private final DoublePublisher[] p99Publishers = new DoublePublisher[Tier.values().length];
+  private final DoublePublisher[] maxPublishers = new DoublePublisher[Tier.values().length];
+  private final DoublePublisher[] bandwidthPublishers = new DoublePublisher[Tier.values().length];
+  private final StringPublisher tierPublisher;
+
+  private TelemetryManager() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Telemetry");
+    tierPublisher = table.getStringTopic("Tier").publish();
+
+    NetworkTable costTable = table.getSubTable("Cost");
+    for (Tier t : Tier.values()) {
+      NetworkTable tierTable = costTable.getSubTable(t.displayName);
+      int i = t.ordinal();
+      costHistograms[i] = new LatencyHistogram(BUCKET_WIDTH_MICROS, BUCKET_COUNT);
+      p50Publishers[i] = tierTable.getDoubleTopic("p50Ms").publish();
+      p99Publishers[i] = tierTable.getDoubleTopic("p99Ms").publish();
+      maxPublishers[i] = tierTable.getDoubleTopic("maxMs").publish();
+      bandwidthPublishers[i] = tierTable.getDoubleTopic("BytesPerSecond").publish();
+      tierChooser.addOption(t.displayName, t);
+    }
+    tierChooser.setDefaultOption(Tier.FULL.displayName, Tier.FULL);
+    SmartDashboard.putData("Telemetry Tier", tierChooser);
+  }
+
+  /**
+   * Register a signal. Periods are in loop cycles, 1 publishes every loop and 0
+   * never publishes in that tier.
+   *
+   * @param name          Name of the signal, for error messages.
+   * @param payloadBytes  Approximate size of one update in bytes.
+   * @param publisher     Publishes the signal.
+   * @param minimalPeriod Period in {@link Tier#MINIMAL}.
+   * @param matchPeriod   Period in {@link Tier#MATCH}.
+   * @param fullPeriod    Period in {@link Tier#FULL}.
+   */
+  public void register(String name, int payloadBytes, Runnable publisher,
+      int minimalPeriod, int matchPeriod, int fullPeriod) {
+    int[] periods = { minimalPeriod, matchPeriod, fullPeriod };
+    for (int period : periods) {
+      if (period < 0) {
+        throw new IllegalArgumentException("Telemetry signal " + name + " has a negative period");
+      }
+    }
+
+    signals.add(new Signal(payloadBytes, periods, publisher));
+    for (int t = 0; t < periods.length; t++) {
+      if (periods[t] > 0) {
+        bytesPerSecond[t] += (payloadBytes + MESSAGE_OVERHEAD_BYTES) / (TimedRobot.kDefaultPeriod * periods[t]);
+      }
+    }
+  }
+
+  /**
+   * Get the tier used this cycle.
+   *
+   * @return The active tier.
+   */
+  public Tier getTier() {
+    return tier;
+  }
+
+  /** Publish the signals due this cycle. Called every robot loop. */
+  public void periodic() {
+    Tier selected = MatchState.getInstance().isFMSAttached() ? Tier.MINIMAL : tierChooser.getSelected();
+    if (selected != tier) {
+      tier = selected;
+      SwerveDriveTelemetry.verbosity = tier.swerveVerbosity;
+      tierPublisher.set(tier.displayName);
+    }
+
+    int t = tier.ordinal();
+    long startMicros = RobotController.getFPGATime();
+    for (int i = 0; i < signals.size(); i++) {
+      Signal signal = signals.get(i);
+      int period = signal.periods[t];
+      if (period > 0 && cycle % period == 0) {
+        signal.publisher.run();
+      }
+    }
+    costHistograms[t].record(RobotController.getFPGATime() - startMicros);
+    cycle++;
+
+    if (++cyclesSincePublish >= PUBLISH_PERIOD_CYCLES) {
+      cyclesSincePublish = 0;
+      publishCosts();
+    }
+  }
+
+  /** Publish the measured cost of every tier. */
+  private void publishCosts() {
+    for (int t = 0; t < costHistograms.length; t++) {
+      LatencyHistogram histogram = costHistograms[t];
+      p50Publishers[t].set(histogram.getPercentile(0.50) / 1000.0);
+      p99Publishers[t].set(histogram.getPercentile(0.99) / 1000.0);
+      maxPublishers[t].set(histogram.getMax() / 1000.0);
+      bandwidthPublishers[t].set(bytesPerSecond[t]);
+    }
+  }
+}
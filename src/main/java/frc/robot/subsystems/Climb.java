@@ -5,11 +5,12 @@ import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DoubleSolenoid;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.ClimbConstants;
+import frc.robot.helpers.OutputLayer;
+import frc.robot.helpers.ProfiledSubsystem;
 
 /** Subsystem that controls the climbing mechanism. */
-public class Climb extends SubsystemBase {
+public class Climb extends ProfiledSubsystem {
   /** Singleton instance of the CLimb subsystem. */
   private static Climb instance;
 
@@ -25,25 +26,42 @@ public class Climb extends SubsystemBase {
     return instance;
   }
 
+  /** Solenoid values by ordinal, cached to avoid copying values() on every write. */
+  private static final DoubleSolenoid.Value[] SOLENOID_VALUES = DoubleSolenoid.Value.values();
+
   private DoubleSolenoid climbSolenoid;
   private NetworkTable table;
 
+  /** Cylinder state as a {@link DoubleSolenoid.Value} ordinal, written once per cycle by the output layer. */
+  private OutputLayer.Output cylinderOutput;
+
   private Climb() {
     climbSolenoid = Pneumatics.getInstance().getDoubleSolenoid(ClimbConstants.CLIMB_SOLENOID_DEPLOY,
         ClimbConstants.CLIMB_SOLENOID_RETRACT);
+    cylinderOutput = OutputLayer.getInstance().output(value -> climbSolenoid.set(SOLENOID_VALUES[(int) value]));
     table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Climb");
   }
 
   public void extendCylinder() {
-    climbSolenoid.set(DoubleSolenoid.Value.kForward);
+    cylinderOutput.set(DoubleSolenoid.Value.kForward.ordinal());
   }
 
   public void retractCylinder() {
-    climbSolenoid.set(DoubleSolenoid.Value.kReverse);
+    cylinderOutput.set(DoubleSolenoid.Value.kReverse.ordinal());
   }
 
-  @Override
-  public void periodic() {
+  /**
+   * Get the commanded state of the climb cylinder from its output, without a
+   * call to the pneumatic hub. Use
+   * {@link frc.robot.helpers.SensorSnapshot#getClimbCylinder()} everywhere
+   * else.
+   *
+   * @return The solenoid state, {@link DoubleSolenoid.Value#kOff} before the
+   *         first command.
+   */
+  public DoubleSolenoid.Value getCommandedCylinderState() {
+    double value = cylinderOutput.get();
+    return Double.isNaN(value) ? DoubleSolenoid.Value.kOff : SOLENOID_VALUES[(int) value];
   }
 
   public Command climb() {
@@ -7,9 +7,13 @@ import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.CoralIntakeConstants;
+import frc.robot.helpers.LatencyTracker;
+import frc.robot.helpers.LatencyTracker.Chain;
+import frc.robot.helpers.LatencyTracker.Stage;
+import frc.robot.helpers.OutputLayer;
+import frc.robot.helpers.ProfiledSubsystem;
 import com.revrobotics.spark.SparkBase.PersistMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.SparkMax;
@@ -21,7 +25,7 @@ import com.revrobotics.spark.SparkBase.ResetMode;
  * Subsystem that controls the Coral Arm, responsible for moving the arm to
  * different positions.
  */
-public class CoralArm extends SubsystemBase {
+public class CoralArm extends ProfiledSubsystem {
   private static CoralArm instance;
 
   /**
@@ -39,8 +43,12 @@ public class CoralArm extends SubsystemBase {
   private Solenoid intakeSolenoid;
   private NetworkTable table;
 
+  /** Arm solenoid state, written once per cycle by the output layer. */
+  private OutputLayer.Output solenoidOutput;
+
   private CoralArm() {
     intakeSolenoid = Pneumatics.getInstance().getSolenoid(CoralIntakeConstants.INTAKE_SOLENOID_CHANNEL);
+    solenoidOutput = OutputLayer.getInstance().output(value -> intakeSolenoid.set(value != 0.0), Chain.ARM);
 
     table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Intake");
   }
@@ -53,12 +61,13 @@ public class CoralArm extends SubsystemBase {
    *         position.
    */
   private Command setPosition(boolean value) {
-    Trigger notInPos = new Trigger(() -> intakeSolenoid.get() != value);
+    Trigger notInPos = new Trigger(() -> solenoidOutput.getBoolean() != value);
 
     return Commands.either(
       Commands.sequence(
         Commands.runOnce(() -> {
-          intakeSolenoid.set(value);
+          LatencyTracker.getInstance().mark(Chain.ARM, Stage.COMMAND_EXECUTE);
+          solenoidOutput.set(value);
         }),
         Commands.waitSeconds(0.3)
       ),
@@ -88,7 +97,15 @@ public class CoralArm extends SubsystemBase {
     return setPosition(CoralIntakeConstants.SCORE_POS_VAL);
   }
 
-  @Override
-  public void periodic() {
+  /**
+   * Get the commanded state of the arm solenoid from its output, without a
+   * call to the pneumatic hub. Use
+   * {@link frc.robot.helpers.SensorSnapshot#getArmSolenoid()} everywhere else.
+   *
+   * @return The solenoid state, {@link CoralIntakeConstants#INTAKE_POS_VAL}
+   *         in intake position, false before the first command.
+   */
+  public boolean getCommandedSolenoidState() {
+    return solenoidOutput.getBoolean();
   }
 }
\ No newline at end of file
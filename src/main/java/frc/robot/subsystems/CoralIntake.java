@@ -5,12 +5,18 @@ import com.revrobotics.spark.SparkLowLevel.MotorType;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import edu.wpi.first.wpilibj.DigitalInput;
 import frc.robot.Constants.CoralIntakeConstants;
+import frc.robot.helpers.CanFrameBudget;
+import frc.robot.helpers.LatencyTracker;
+import frc.robot.helpers.LatencyTracker.Chain;
+import frc.robot.helpers.LatencyTracker.Stage;
+import frc.robot.helpers.OutputLayer;
+import frc.robot.helpers.ProfiledSubsystem;
+import frc.robot.helpers.SensorSnapshot;
 
-public class CoralIntake extends SubsystemBase {
+public class CoralIntake extends ProfiledSubsystem {
     private static CoralIntake instance;
 
     public static CoralIntake getInstance() {
@@ -20,23 +26,82 @@ public class CoralIntake extends SubsystemBase {
         return instance;
     }
 
+    /** Intake motor configured by {@link #prepare()}, taken by the constructor */
+    private static volatile SparkMax preparedIntakeMotor;
+
+    /**
+     * Create and configure the intake motor ahead of the constructor, so it can
+     * run on a startup thread while other devices are configured.
+     */
+    public static void prepare() {
+        preparedIntakeMotor = createIntakeMotor();
+    }
+
+    /**
+     * Create the intake motor and apply its CAN frame periods.
+     *
+     * @return The new motor controller
+     */
+    private static SparkMax createIntakeMotor() {
+        SparkMax motor = new SparkMax(CoralIntakeConstants.INTAKE_MOTOR_CAN_ID, MotorType.kBrushless);
+        CanFrameBudget.getInstance().apply(motor, "intake");
+        return motor;
+    }
+
     /** The intake motor */
     private SparkMax intakeMotor;
     /** The coral presence limit switch */
     private DigitalInput coralPresenceLimit;
+    /** Intake motor power, written once per cycle by the output layer */
+    private OutputLayer.Output intakeOutput;
 
     private CoralIntake() {
-        intakeMotor = new SparkMax(CoralIntakeConstants.INTAKE_MOTOR_CAN_ID, MotorType.kBrushless);
+        intakeMotor = preparedIntakeMotor != null ? preparedIntakeMotor : createIntakeMotor();
+        preparedIntakeMotor = null;
+        intakeOutput = OutputLayer.getInstance().output(intakeMotor::set, Chain.INTAKE);
         coralPresenceLimit = new DigitalInput(CoralIntakeConstants.CORAL_PRESENCE_LIMIT_CHANNEL);
     }
 
-    public final Trigger highOutputCurrent = new Trigger(() -> intakeMotor.getOutputCurrent() > 15.0);
+    /**
+     * Read the intake motor current from the motor controller. Use
+     * {@link SensorSnapshot#getIntakeCurrent()} everywhere else.
+     *
+     * @return The output current in amps
+     */
+    public double readOutputCurrent() {
+        return intakeMotor.getOutputCurrent();
+    }
+
+    /**
+     * Read the coral presence limit switch. Use
+     * {@link SensorSnapshot#isCoralPresent()} everywhere else.
+     *
+     * @return True if the switch is pressed
+     */
+    public boolean readCoralPresent() {
+        return coralPresenceLimit.get();
+    }
+
+    public final Trigger highOutputCurrent = new Trigger(() -> SensorSnapshot.getInstance().getIntakeCurrent() > 15.0);
+
+    /**
+     * Set the intake motor, recording the operator to motor latency. The
+     * actuation is marked when the output layer writes the new power. Every
+     * change of the intake power goes through here, stopping included, so the
+     * actuation is always measured from this cycle.
+     *
+     * @param power Motor power in the range [-1, 1]
+     */
+    private void setIntakeMotor(double power) {
+        LatencyTracker.getInstance().mark(Chain.INTAKE, Stage.COMMAND_EXECUTE);
+        intakeOutput.set(power);
+    }
 
     /** Runs the coral intake motor until interrupted, then stops the motor */
     public Command intake() {
         return Commands.runEnd(
-            () -> { intakeMotor.set(CoralIntakeConstants.CORAL_INTAKE_POWER); },
-            () -> { intakeMotor.set(0); }
+            () -> { setIntakeMotor(CoralIntakeConstants.CORAL_INTAKE_POWER); },
+            () -> { setIntakeMotor(0); }
         )
                 .withName("coralIntake");
     }
@@ -44,15 +109,15 @@ public class CoralIntake extends SubsystemBase {
     /** Runs the coral intake motor in reverse to score it until interrupted, then stops the motor */
     public Command scoreCoral() {
         return Commands.runEnd(
-            () -> { intakeMotor.set(CoralIntakeConstants.CORAL_SCORE_POWER); },
-            () -> { intakeMotor.set(0); }
+            () -> { setIntakeMotor(CoralIntakeConstants.CORAL_SCORE_POWER); },
+            () -> { setIntakeMotor(0); }
         )
                 .withName("scoreCoral");
     }
 
     /** Stops the coral intake motor */
     public Command stop() {
-        return Commands.runOnce(() -> intakeMotor.set(0))
+        return Commands.runOnce(() -> setIntakeMotor(0))
                 .withName("stop");
     }
 }
@@ -0,0 +1,287 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.NavigationConstants;
+import frc.robot.helpers.GridPlanner;
+import frc.robot.helpers.OccupancyGrid;
+import frc.robot.helpers.ProfiledSubsystem;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plans drive-to-pose paths around the field elements. Paths are searched on
+ * the {@link OccupancyGrid} by a {@link GridPlanner} on a background thread,
+ * and the main loop only picks the next waypoint of the latest path, so
+ * planning never adds time to a cycle.
+ *
+ * <p>
+ * A path is planned again only when the target moved or the robot strayed
+ * from the path by more than the {@link NavigationConstants} distances. The
+ * waypoint skips ahead to any later corner the robot can already drive
+ * straight to, and is the target itself on the last leg.
+ *
+ * <p>
+ * When the target jumps, or waypoints are requested again after a pause such
+ * as a new press of the align binding, the old path is dropped and the robot
+ * holds its position until the new path arrives.
+ *
+ * <p>
+ * In simulation paths are planned on the main loop instead, so a run does not
+ * depend on thread timing.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>{@code
+ * CustomSwerveInput.of(drive, x, y)
+ *     .driveToPose(Navigation.getInstance().waypointTowards(() -> target), translation, rotation);
+ * }</pre>
+ */
+public class Navigation extends ProfiledSubsystem {
+  private static Navigation instance;
+
+  /**
+   * Gets the singleton instance of the Navigation subsystem.
+   *
+   * @return The singleton instance.
+   */
+  public static Navigation getInstance() {
+    if (instance == null) {
+      instance = new Navigation();
+    }
+    return instance;
+  }
+
+  /** A planned path for one request, immutable once published. */
+  private record Plan(int request, double goalX, double goalY, double[] points, long planNanos, int expanded) {
+    int pointCount() {
+      return points.length / 2;
+    }
+  }
+
+  private final Swerve swerve = Swerve.getInstance();
+  private final OccupancyGrid grid = OccupancyGrid.getInstance();
+
+  /** Planner used only on the planning thread. */
+  private final GridPlanner planner = new GridPlanner(grid);
+
+  /** Thread planning the paths. */
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Navigation");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Latest path from the planning thread. */
+  private volatile Plan latestPlan = null;
+
+  /** Plan being computed, null when idle. */
+  private Future<?> pending = null;
+
+  /** Path being followed. */
+  private Plan plan = null;
+
+  /** Index of the point of {@link #plan} driven to. */
+  private int waypointIndex = 0;
+
+  /** Path last published. */
+  private Plan publishedPlan = null;
+
+  /** Number of the current request, paths planned for an earlier one are ignored. */
+  private int request = 0;
+
+  /** FPGA time of the last {@link #update} in seconds, NaN before the first. */
+  private double lastUpdateSeconds = Double.NaN;
+
+  /** Goal X of the last {@link #update} in meters. */
+  private double lastGoalX = 0.0;
+
+  /** Goal Y of the last {@link #update} in meters. */
+  private double lastGoalY = 0.0;
+
+  private final DoublePublisher planTimePublisher;
+  private final IntegerPublisher expandedPublisher;
+  private final IntegerPublisher waypointCountPublisher;
+
+  private Navigation() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Navigation");
+    planTimePublisher = table.getDoubleTopic("PlanMs").publish();
+    expandedPublisher = table.getIntegerTopic("ExpandedCells").publish();
+    waypointCountPublisher = table.getIntegerTopic("Waypoints").publish();
+  }
+
+  /**
+   * Get a target for drive-to-pose that leads around the field elements to a
+   * goal. Until the first path arrives the target is the robot's own position,
+   * so the robot holds still rather than driving into the reef.
+   *
+   * @param goal Pose to reach, its rotation is kept by every waypoint.
+   * @return The next waypoint towards the goal, to be called every cycle.
+   */
+  public Supplier<Pose2d> waypointTowards(Supplier<Pose2d> goal) {
+    return () -> {
+      Pose2d target = goal.get();
+      Pose2d pose = swerve.getPose();
+      update(pose.getX(), pose.getY(), target.getX(), target.getY());
+      if (plan == null) {
+        return new Pose2d(pose.getTranslation(), target.getRotation());
+      }
+      return new Pose2d(
+          plan.points()[2 * waypointIndex], plan.points()[2 * waypointIndex + 1], target.getRotation());
+    };
+  }
+
+  /**
+   * Start a new request if the goal jumped or waypoints were not requested
+   * for a while, take a new path if one arrived, request another if needed and
+   * advance the waypoint.
+   *
+   * @param x     Robot X in meters.
+   * @param y     Robot Y in meters.
+   * @param goalX Goal X in meters.
+   * @param goalY Goal Y in meters.
+   */
+  private void update(double x, double y, double goalX, double goalY) {
+    double now = Timer.getFPGATimestamp();
+    // Written so the NaN before the first update also starts a new request.
+    boolean resumed = !(now - lastUpdateSeconds <= NavigationConstants.NEW_REQUEST_GAP_SECONDS);
+    boolean goalJumped = Math.hypot(goalX - lastGoalX, goalY - lastGoalY) > NavigationConstants.REPLAN_TARGET_METERS;
+    if (resumed || goalJumped) {
+      startRequest();
+    }
+    lastUpdateSeconds = now;
+    lastGoalX = goalX;
+    lastGoalY = goalY;
+
+    takeLatestPlan();
+    if ((pending == null || pending.isDone()) && needsPlan(x, y, goalX, goalY)) {
+      int planRequest = request;
+      if (RobotBase.isSimulation()) {
+        // Plan on the main loop, so a simulation run does not depend on thread timing.
+        planPath(planRequest, x, y, goalX, goalY);
+        takeLatestPlan();
+      } else {
+        pending = executor.submit(() -> planPath(planRequest, x, y, goalX, goalY));
+      }
+    }
+
+    if (plan == null) {
+      return;
+    }
+    double[] points = plan.points();
+    int last = plan.pointCount() - 1;
+    while (waypointIndex < last
+        && (Math.hypot(points[2 * waypointIndex] - x, points[2 * waypointIndex + 1] - y)
+            < NavigationConstants.WAYPOINT_REACHED_METERS
+            || grid.hasLineOfSight(x, y, points[2 * waypointIndex + 2], points[2 * waypointIndex + 3]))) {
+      waypointIndex++;
+    }
+  }
+
+  /**
+   * Drop the path being followed and any path still being planned, so the
+   * waypoint holds the robot in place until a path for the new request
+   * arrives.
+   */
+  private void startRequest() {
+    request++;
+    plan = null;
+    latestPlan = null;
+    waypointIndex = 0;
+    if (pending != null) {
+      // Not interrupted, the planner finishes and its path is ignored.
+      pending.cancel(false);
+      pending = null;
+    }
+  }
+
+  /** Follow the latest path from the planning thread, if it is new and for the current request. */
+  private void takeLatestPlan() {
+    Plan latest = latestPlan;
+    if (latest != plan && latest != null && latest.request() == request) {
+      plan = latest;
+      waypointIndex = Math.min(1, plan.pointCount() - 1);
+    }
+  }
+
+  /**
+   * Get whether the path must be planned again.
+   *
+   * @param x     Robot X in meters.
+   * @param y     Robot Y in meters.
+   * @param goalX Goal X in meters.
+   * @param goalY Goal Y in meters.
+   * @return True without a path, when the goal moved or the robot left the path.
+   */
+  private boolean needsPlan(double x, double y, double goalX, double goalY) {
+    if (plan == null) {
+      return true;
+    }
+    if (Math.hypot(goalX - plan.goalX(), goalY - plan.goalY()) > NavigationConstants.REPLAN_TARGET_METERS) {
+      return true;
+    }
+    double[] points = plan.points();
+    int from = Math.max(waypointIndex - 1, 0);
+    return distanceToSegment(x, y, points[2 * from], points[2 * from + 1],
+        points[2 * waypointIndex], points[2 * waypointIndex + 1]) > NavigationConstants.REPLAN_DEVIATION_METERS;
+  }
+
+  /**
+   * Plan a path and publish it to the main loop. Runs on the planning thread.
+   *
+   * @param request Request the path is planned for.
+   * @param x       Robot X in meters.
+   * @param y       Robot Y in meters.
+   * @param goalX   Goal X in meters.
+   * @param goalY   Goal Y in meters.
+   */
+  private void planPath(int request, double x, double y, double goalX, double goalY) {
+    long start = System.nanoTime();
+    double[] points = planner.plan(x, y, goalX, goalY);
+    if (points == null) {
+      // Unreachable, drive straight at the goal rather than stopping.
+      points = new double[] { x, y, goalX, goalY };
+    }
+    latestPlan = new Plan(request, goalX, goalY, points, System.nanoTime() - start, planner.getExpandedCount());
+  }
+
+  /**
+   * Distance from a point to a segment.
+   *
+   * @param x       Point X.
+   * @param y       Point Y.
+   * @param startX  Segment start X.
+   * @param startY  Segment start Y.
+   * @param endX    Segment end X.
+   * @param endY    Segment end Y.
+   * @return The distance.
+   */
+  private static double distanceToSegment(
+      double x, double y, double startX, double startY, double endX, double endY) {
+    double dx = endX - startX;
+    double dy = endY - startY;
+    double lengthSquared = dx * dx + dy * dy;
+    double t = lengthSquared > 0.0 ? ((x - startX) * dx + (y - startY) * dy) / lengthSquared : 0.0;
+    t = Math.max(0.0, Math.min(1.0, t));
+    return Math.hypot(x - (startX + t * dx), y - (startY + t * dy));
+  }
+
+  @Override
+  protected void profiledPeriodic() {
+    Plan latest = latestPlan;
+    if (latest != null && latest != publishedPlan) {
+      publishedPlan = latest;
+      planTimePublisher.set(latest.planNanos() / 1.0e6);
+      expandedPublisher.set(latest.expanded());
+      waypointCountPublisher.set(latest.pointCount());
+    }
+  }
+}
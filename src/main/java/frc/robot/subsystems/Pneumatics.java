@@ -5,16 +5,42 @@ import edu.wpi.first.wpilibj.DoubleSolenoid;
 import edu.wpi.first.wpilibj.PneumaticHub;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.Solenoid;
-import edu.wpi.first.wpilibj2.command.Subsystem;
 import frc.robot.Constants.*;
+import frc.robot.helpers.OutputLayer;
+import frc.robot.helpers.ProfiledSubsystem;
 
-public final class Pneumatics implements Subsystem {
+public final class Pneumatics extends ProfiledSubsystem {
     private static Pneumatics mInstance;
 
     public static PneumaticHub hub = new PneumaticHub(PneumaticConstants.CAN_ID);
-    private Compressor compressor = hub.makeCompressor();
+
+    /** Compressor created by {@link #prepare()}, taken by the constructor */
+    private static volatile Compressor preparedCompressor;
+
+    /**
+     * Create the pneumatic hub and the compressor ahead of the constructor, so
+     * it can run on a startup thread while other devices are configured. The
+     * subsystem registers with the command scheduler, so it is still created on
+     * the main thread.
+     */
+    public static void prepare() {
+        preparedCompressor = hub.makeCompressor();
+    }
+
+    private Compressor compressor;
+
+    /** Whether the compressor is enabled, written once per cycle by the output layer */
+    private OutputLayer.Output compressorOutput = OutputLayer.getInstance().output(enabled -> {
+        if (enabled != 0.0) {
+            compressor.enableDigital();
+        } else {
+            compressor.disable();
+        }
+    });
 
     public Pneumatics() {
+        compressor = preparedCompressor != null ? preparedCompressor : hub.makeCompressor();
+        preparedCompressor = null;
     }
 
     public static Pneumatics getInstance() {
@@ -27,12 +53,12 @@ public final class Pneumatics implements Subsystem {
 
     /** Turn on the compressor */
     public void enableCompressor() {
-        compressor.enableDigital();
+        compressorOutput.set(true);
     }
 
     /** Turn off the compressor */
     public void disableCompressor() {
-        compressor.disable();
+        compressorOutput.set(false);
     }
 
     /** Build an instance of the Solenoid class using the PH's CAN ID */
@@ -44,8 +70,4 @@ public final class Pneumatics implements Subsystem {
     public DoubleSolenoid getDoubleSolenoid(int forwardChannel, int reverseChannel) {
         return hub.makeDoubleSolenoid(forwardChannel, reverseChannel);
     }
-
-    @Override
-    public void periodic() {
-    }
 }
\ No newline at end of file
@@ -2,25 +2,69 @@ package frc.robot.subsystems;
 
 import static edu.wpi.first.units.Units.Meter;
 import static edu.wpi.first.units.Units.MetersPerSecond;
+import static edu.wpi.first.units.Units.Seconds;
 
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.revrobotics.spark.SparkMax;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.OdometryConstants;
 import frc.robot.Constants.RobotConstants;
+import frc.robot.Constants.SimulationConstants;
 import frc.robot.Robot;
+import frc.robot.commands.CompiledTrajectory;
+import frc.robot.generated.SwerveConfig;
+import frc.robot.helpers.CanFrameBudget;
+import frc.robot.helpers.CustomSwerveInput;
+import frc.robot.helpers.LatencyTracker;
+import frc.robot.helpers.LatencyTracker.Chain;
+import frc.robot.helpers.LatencyTracker.Stage;
+import frc.robot.helpers.MatchState;
+import frc.robot.helpers.OdometrySampleQueue;
+import frc.robot.helpers.OdometryThread;
+import frc.robot.helpers.PoseHistory;
+import frc.robot.helpers.ProfiledSubsystem;
+import frc.robot.helpers.SimulationClock;
+import frc.robot.helpers.TelemetryManager;
 
-import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Random;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Supplier;
+import org.ironmaple.simulation.SimulatedArena;
+import org.ironmaple.utils.mathutils.MapleCommonMath;
+import org.ejml.simple.SimpleMatrix;
 import swervelib.SwerveDrive;
-import swervelib.parser.SwerveParser;
+import swervelib.SwerveModule;
+import swervelib.parser.SwerveDriveConfiguration;
+import swervelib.parser.SwerveModuleConfiguration;
+import swervelib.parser.json.ModuleJson;
+import swervelib.parser.json.PIDFPropertiesJson;
+import swervelib.parser.json.PhysicalPropertiesJson;
+import swervelib.parser.json.SwerveDriveJson;
 import swervelib.telemetry.SwerveDriveTelemetry;
 import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
 
@@ -46,10 +90,53 @@ import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
  * implementation and
  * PathPlanner for autonomous navigation.
  */
-public class Swerve extends SubsystemBase {
+public class Swerve extends ProfiledSubsystem {
   private static Swerve instance;
+
+  /** Drive created by {@link #prepare()}, taken by the constructor. */
+  private static volatile SwerveDrive preparedDrive;
+
   private SwerveDrive drivebase;
 
+  /** Reused output for {@link #driveFieldOriented(CustomSwerveInput)}. */
+  private final ChassisSpeeds driveInputSpeeds = new ChassisSpeeds();
+
+  /** Samples written by the odometry thread and drained every loop. */
+  private OdometrySampleQueue odometryQueue;
+
+  /** Thread sampling the module encoders and gyro faster than the main loop. */
+  private OdometryThread odometryThread;
+
+  /** Reused sample drained from {@link #odometryQueue}. */
+  private OdometrySampleQueue.Sample odometrySample;
+
+  /** Reused module positions passed to the pose estimator. */
+  private SwerveModulePosition[] odometryPositions;
+
+  /** Module angles in radians of {@link #odometryPositions}, NaN before the first sample. */
+  private double[] odometryAngles;
+
+  /** Gyro yaw passed to the pose estimator with the last sample. */
+  private Rotation2d odometryYaw = Rotation2d.kZero;
+
+  /** Yaw in radians of {@link #odometryYaw}, NaN before the first sample. */
+  private double odometryYawRadians = Double.NaN;
+
+  /** Estimated poses by timestamp, for latency compensation. */
+  private final PoseHistory poseHistory = new PoseHistory(OdometryConstants.POSE_HISTORY_CAPACITY);
+
+  /**
+   * Forward kinematics, 3 rows by 2 columns per module, turning module velocity
+   * components into robot relative vx, vy and omega.
+   */
+  private double[][] forwardKinematics;
+
+  /** Whether a vision measurement has been added since boot. */
+  private boolean hasVisionPose = false;
+
+  /** Loops since the module encoders were last synchronized. */
+  private int encoderSyncCycles = 0;
+
   /**
    * Returns the singleton instance of the Swerve subsystem. Creates a new
    * instance if one does not
@@ -67,23 +154,14 @@ public class Swerve extends SubsystemBase {
   /**
    * Creates a new Swerve subsystem that manages drive control, path following,
    * and odometry.
-   * Initializes the swerve drive with high telemetry verbosity and configures
-   * various drive
-   * parameters.
+   * Initializes the swerve drive and configures various drive
+   * parameters. Telemetry is published through the {@link TelemetryManager}.
    *
    * @throws RuntimeException if swerve drive creation fails
    */
   public Swerve() {
-    SwerveDriveTelemetry.verbosity = TelemetryVerbosity.HIGH;
-    try {
-      drivebase = new SwerveParser(new File(Filesystem.getDeployDirectory(), "swerve"))
-          .createSwerveDrive(
-              RobotConstants.MAX_SPEED.in(MetersPerSecond),
-              new Pose2d(
-                  new Translation2d(Meter.of(8.774), Meter.of(4.026)), getAllianceRotation()));
-    } catch (Exception e) {
-      throw new RuntimeException("Failed to create swerve drive", e);
-    }
+    drivebase = preparedDrive != null ? preparedDrive : createSwerveDrive();
+    preparedDrive = null;
 
     drivebase.setHeadingCorrection(true);
     drivebase.setAngularVelocityCompensation(true, true, 0.1);
@@ -91,6 +169,291 @@ public class Swerve extends SubsystemBase {
     drivebase.setModuleEncoderAutoSynchronize(true, 1);
     drivebase.setChassisDiscretization(true, true, 0.02);
     drivebase.useExternalFeedbackSensor();
+
+    int moduleCount = drivebase.getModules().length;
+    odometryQueue = new OdometrySampleQueue(OdometryConstants.QUEUE_CAPACITY, moduleCount);
+    odometrySample = odometryQueue.newSample();
+    odometryPositions = new SwerveModulePosition[moduleCount];
+    odometryAngles = new double[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      odometryPositions[i] = new SwerveModulePosition();
+      odometryAngles[i] = Double.NaN;
+    }
+    odometryThread = new OdometryThread(drivebase, odometryQueue);
+    forwardKinematics = createForwardKinematics(drivebase.getModules());
+    registerTelemetry();
+    if (RobotBase.isReal()) {
+      odometryThread.start(OdometryConstants.FREQUENCY_HZ);
+    } else {
+      configureSimulation();
+    }
+  }
+
+  /**
+   * Parse the swerve config and configure the drive's devices ahead of the
+   * constructor, so it can run on a startup thread while other subsystems are
+   * configured. The constructor uses the prepared drive instead of creating
+   * its own. Does nothing if the subsystem already exists, so the devices are
+   * never configured twice.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * startup.phase("SwerveDrive", Swerve::prepare, "Helpers");
+   * }</pre>
+   *
+   * @throws RuntimeException if swerve drive creation fails
+   */
+  public static void prepare() {
+    if (instance == null) {
+      preparedDrive = createSwerveDrive();
+    }
+  }
+
+  /**
+   * Create the drive from the {@link SwerveConfig} compiled from the deploy
+   * JSON at build time, the same way {@code SwerveParser} does, and apply its
+   * CAN frame periods.
+   *
+   * @return The new drive.
+   * @throws RuntimeException if swerve drive creation fails
+   */
+  private static SwerveDrive createSwerveDrive() {
+    // Create the drive with every YAGSL publisher, the TelemetryManager lowers
+    // the verbosity afterwards.
+    SwerveDriveTelemetry.verbosity = TelemetryVerbosity.HIGH;
+    double maxSpeed = RobotConstants.MAX_SPEED.in(MetersPerSecond);
+    SwerveDrive drive;
+    try {
+      SwerveDriveJson driveConfig = SwerveConfig.swerveDrive();
+      PIDFPropertiesJson pidfConfig = SwerveConfig.pidfProperties();
+      PhysicalPropertiesJson physicalConfig = SwerveConfig.physicalProperties();
+      ModuleJson[] moduleConfigs = SwerveConfig.modules();
+
+      SwerveModuleConfiguration[] modules = new SwerveModuleConfiguration[moduleConfigs.length];
+      for (int i = 0; i < modules.length; i++) {
+        modules[i] = moduleConfigs[i].createModuleConfiguration(
+            pidfConfig.angle, pidfConfig.drive, physicalConfig.createPhysicalProperties(),
+            SwerveConfig.getModuleName(i));
+      }
+      SwerveDriveConfiguration configuration = new SwerveDriveConfiguration(
+          modules, driveConfig.imu.createIMU(), driveConfig.invertedIMU, physicalConfig.createPhysicalProperties());
+
+      drive = new SwerveDrive(
+          configuration,
+          SwerveConfig.controllerProperties().createControllerConfiguration(configuration, maxSpeed),
+          maxSpeed,
+          new Pose2d(new Translation2d(Meter.of(8.774), Meter.of(4.026)), getAllianceRotation()));
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to create swerve drive", e);
+    }
+    configureCanFrames(drive);
+    return drive;
+  }
+
+  /**
+   * Apply the status frame periods of the swerve roles in
+   * {@code canframes.json} to every module's motors and encoder.
+   *
+   * @param drive Drive to configure.
+   */
+  private static void configureCanFrames(SwerveDrive drive) {
+    CanFrameBudget canFrames = CanFrameBudget.getInstance();
+    for (SwerveModule module : drive.getModules()) {
+      if (module.getDriveMotor().getMotor() instanceof SparkMax driveMotor) {
+        canFrames.apply(driveMotor, "swerveDrive");
+      }
+      if (module.getAngleMotor().getMotor() instanceof SparkMax angleMotor) {
+        canFrames.apply(angleMotor, "swerveAngle");
+      }
+      if (module.getAbsoluteEncoder().getAbsoluteEncoder() instanceof CANcoder encoder) {
+        canFrames.apply(encoder, "swerveEncoder");
+      }
+    }
+  }
+
+  /**
+   * Build the forward kinematics matrix, the pseudo-inverse of the inverse
+   * kinematics used by {@code SwerveDriveKinematics}, so velocities can be
+   * computed from primitives.
+   *
+   * @param modules Modules of the drive.
+   * @return The forward kinematics matrix.
+   */
+  private static double[][] createForwardKinematics(SwerveModule[] modules) {
+    SimpleMatrix inverse = new SimpleMatrix(modules.length * 2, 3);
+    for (int i = 0; i < modules.length; i++) {
+      Translation2d location = modules[i].configuration.moduleLocation;
+      inverse.setRow(i * 2, 0, 1, 0, -location.getY());
+      inverse.setRow(i * 2 + 1, 0, 0, 1, location.getX());
+    }
+    SimpleMatrix forward = inverse.pseudoInverse();
+
+    double[][] result = new double[3][modules.length * 2];
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < modules.length * 2; column++) {
+        result[row][column] = forward.get(row, column);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Register the drive signals with the {@link TelemetryManager}. The pose is
+   * always published, module states and velocity from the match tier, and raw
+   * encoder angles only in the full tier.
+   */
+  private void registerTelemetry() {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Swerve");
+    SwerveModule[] modules = drivebase.getModules();
+    SwerveModuleState[] measuredStates = new SwerveModuleState[modules.length];
+    double[] absoluteAngles = new double[modules.length];
+
+    StructArrayPublisher<SwerveModuleState> statesPublisher = table
+        .getStructArrayTopic("MeasuredStates", SwerveModuleState.struct).publish();
+    StructPublisher<ChassisSpeeds> velocityPublisher = table
+        .getStructTopic("RobotVelocity", ChassisSpeeds.struct).publish();
+    DoubleArrayPublisher absoluteAnglesPublisher = table
+        .getDoubleArrayTopic("AbsoluteEncoderDegrees").publish();
+
+    TelemetryManager telemetry = TelemetryManager.getInstance();
+    telemetry.register("Pose", 24, () -> drivebase.field.setRobotPose(drivebase.getPose()), 5, 1, 1);
+    Lock lock = drivebase.odometryLock;
+    telemetry.register("MeasuredStates", 16 * modules.length, () -> {
+      lock.lock();
+      try {
+        for (int i = 0; i < modules.length; i++) {
+          measuredStates[i] = modules[i].getState();
+        }
+      } finally {
+        lock.unlock();
+      }
+      statesPublisher.set(measuredStates);
+    }, 0, 2, 1);
+    telemetry.register("RobotVelocity", 24, () -> velocityPublisher.set(getRobotVelocity()), 0, 2, 1);
+    telemetry.register("AbsoluteEncoders", 8 * modules.length, () -> {
+      lock.lock();
+      try {
+        for (int i = 0; i < modules.length; i++) {
+          absoluteAngles[i] = modules[i].getAbsolutePosition();
+        }
+      } finally {
+        lock.unlock();
+      }
+      absoluteAnglesPublisher.set(absoluteAngles);
+    }, 0, 0, 1);
+  }
+
+  /**
+   * Set up the maple-sim physics for a repeatable simulation. YAGSL already
+   * registers the drive with the {@link SimulatedArena}, but steps it from its
+   * odometry thread on the wall clock. That thread is stopped and the arena is
+   * stepped a fixed amount before every loop by the {@link SimulationClock}
+   * instead, and maple-sim's sensor noise is seeded.
+   *
+   * @throws IllegalStateException if maple-sim has no random source to seed
+   */
+  private void configureSimulation() {
+    drivebase.stopOdometryThread();
+    SimulatedArena.overrideSimulationTimings(
+        Seconds.of(TimedRobot.kDefaultPeriod), SimulationConstants.PHYSICS_SUBTICKS);
+    // maple-sim does not expose its random source. The field is private, so
+    // check it is still found when maple-sim is updated in vendordeps.
+    if (seedRandomFields(MapleCommonMath.class, SimulationConstants.SEED) == 0) {
+      throw new IllegalStateException("No random source found to seed in MapleCommonMath");
+    }
+    SimulationClock.getInstance().addWorldStep(this::stepSimulation);
+  }
+
+  /**
+   * Reseed every static {@link Random} field of a class. Libraries that do not
+   * expose their random source are seeded this way.
+   *
+   * @param type Class to seed.
+   * @param seed Seed to use.
+   * @return Number of fields seeded.
+   */
+  private static int seedRandomFields(Class<?> type, long seed) {
+    int seeded = 0;
+    for (Field field : type.getDeclaredFields()) {
+      if (!Modifier.isStatic(field.getModifiers()) || !Random.class.isAssignableFrom(field.getType())) {
+        continue;
+      }
+      try {
+        field.setAccessible(true);
+        ((Random) field.get(null)).setSeed(seed);
+        seeded++;
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        DriverStation.reportWarning("Could not seed " + type.getSimpleName() + "." + field.getName(), false);
+      }
+    }
+    return seeded;
+  }
+
+  /**
+   * Step the maple-sim physics by one loop and sample the simulated encoders
+   * and gyro. Run by the {@link SimulationClock} before every loop, the sample
+   * is drained by the next {@link #periodic()}.
+   */
+  private void stepSimulation() {
+    SimulatedArena.getInstance().simulationPeriodic();
+    odometryThread.sampleNow();
+  }
+
+  /**
+   * Drain the samples taken by the odometry thread since the last loop into the
+   * pose estimator, oldest first.
+   *
+   * <p>
+   * {@link Rotation2d} is immutable, so a module angle or the yaw only gets a
+   * new one when it changed since the previous sample. Wheels pointing the same
+   * way and a robot not turning create none. The estimator update itself
+   * allocates inside WPILib for every sample, which is counted in the
+   * allocation budget of the robot loop.
+   */
+  private void updateOdometry() {
+    boolean updated = false;
+    while (odometryQueue.poll(odometrySample)) {
+      for (int i = 0; i < odometryPositions.length; i++) {
+        odometryPositions[i].distanceMeters = odometrySample.distance[i];
+        if (odometrySample.angle[i] != odometryAngles[i]) {
+          odometryAngles[i] = odometrySample.angle[i];
+          odometryPositions[i].angle = Rotation2d.fromRadians(odometryAngles[i]);
+        }
+      }
+      if (odometrySample.yaw != odometryYawRadians) {
+        odometryYawRadians = odometrySample.yaw;
+        odometryYaw = Rotation2d.fromRadians(odometryYawRadians);
+      }
+      Pose2d pose = drivebase.swerveDrivePoseEstimator.updateWithTime(
+          odometrySample.timestamp, odometryYaw, odometryPositions);
+      poseHistory.add(odometrySample.timestamp, pose);
+      updated = true;
+    }
+    if (!updated) {
+      // YAGSL is running odometry itself, record its latest pose once per loop.
+      poseHistory.add(Timer.getFPGATimestamp(), drivebase.getPose());
+    }
+  }
+
+  /**
+   * Queue the synchronization of the module angle encoders every few loops.
+   * YAGSL does this from its odometry thread, which is stopped for the
+   * {@link OdometryThread}. Each module resets its relative angle encoder to
+   * the absolute encoder the next time it is driven, when they differ by more
+   * than the deadband set with {@code setModuleEncoderAutoSynchronize}.
+   */
+  private void synchronizeModuleEncoders() {
+    if (++encoderSyncCycles >= OdometryConstants.ENCODER_SYNC_PERIOD_CYCLES) {
+      encoderSyncCycles = 0;
+      drivebase.odometryLock.lock();
+      try {
+        drivebase.synchronizeModuleEncoders();
+      } finally {
+        drivebase.odometryLock.unlock();
+      }
+    }
   }
 
   /**
@@ -100,12 +463,11 @@ public class Swerve extends SubsystemBase {
    *
    * @return Rotation2d set to 0 or 180 degrees based on alliance
    */
-  private Rotation2d getAllianceRotation() {
-    var alliance = DriverStation.getAlliance();
-    if (alliance.isPresent() && alliance.get() == Alliance.Red) {
-      return Rotation2d.fromDegrees(180);
+  private static Rotation2d getAllianceRotation() {
+    if (MatchState.getInstance().isRedAlliance()) {
+      return Rotation2d.k180deg;
     }
-    return Rotation2d.fromDegrees(0);
+    return Rotation2d.kZero;
   }
 
   /**
@@ -126,7 +488,97 @@ public class Swerve extends SubsystemBase {
    * @see ChassisSpeeds
    */
   public Command driveFieldOriented(Supplier<ChassisSpeeds> velocity) {
-    return run(() -> drivebase.driveFieldOriented(velocity.get()));
+    return run(() -> driveFieldRelative(velocity.get()));
+  }
+
+  /**
+   * Creates a command to drive the robot in field-oriented mode from a
+   * {@link CustomSwerveInput}. The input is evaluated into a single reused
+   * {@link ChassisSpeeds} so the command does not create garbage every loop.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * Swerve.getInstance().driveFieldOriented(driveInputStream);
+   * }</pre>
+   *
+   * @param input the input stream to sample every loop
+   * @return a command that continuously updates drive output based on the
+   *         input stream
+   */
+  public Command driveFieldOriented(CustomSwerveInput input) {
+    LatencyTracker latency = LatencyTracker.getInstance();
+    return run(() -> {
+      latency.mark(Chain.DRIVE, Stage.COMMAND_EXECUTE);
+      input.get(driveInputSpeeds);
+      latency.mark(Chain.DRIVE, Stage.INPUT_SAMPLE);
+      driveFieldRelative(driveInputSpeeds);
+      latency.mark(Chain.DRIVE, Stage.ACTUATION);
+    });
+  }
+
+  /**
+   * Creates a command following a compiled trajectory with a holonomic
+   * controller: the trajectory velocity as feedforward plus a proportional
+   * correction of the position and heading error. The trajectory and the pose
+   * are read into primitives, so the command creates no garbage while running.
+   * The alliance is read when the command starts.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * Swerve.getInstance().followTrajectory(CompiledTrajectory.load("BackwardDrive"));
+   * }</pre>
+   *
+   * @param trajectory the trajectory to follow
+   * @return a command driving along the trajectory, ending when its time is up
+   */
+  public Command followTrajectory(CompiledTrajectory trajectory) {
+    double[] target = new double[CompiledTrajectory.STATE_SIZE];
+    double[] pose = new double[3];
+    boolean[] red = new boolean[1];
+    ChassisSpeeds speeds = new ChassisSpeeds();
+    Timer timer = new Timer();
+
+    return new FunctionalCommand(
+        () -> {
+          red[0] = MatchState.getInstance().isRedAlliance();
+          timer.restart();
+        },
+        () -> {
+          trajectory.sample(timer.get(), red[0], target);
+          if (!poseHistory.getLatest(pose)) {
+            // No pose since a reset, follow the feedforward alone.
+            pose[0] = target[CompiledTrajectory.X];
+            pose[1] = target[CompiledTrajectory.Y];
+            pose[2] = target[CompiledTrajectory.HEADING];
+          }
+          double vx = target[CompiledTrajectory.VX]
+              + AutoConstants.TRANSLATION_KP * (target[CompiledTrajectory.X] - pose[0]);
+          double vy = target[CompiledTrajectory.VY]
+              + AutoConstants.TRANSLATION_KP * (target[CompiledTrajectory.Y] - pose[1]);
+          double omega = target[CompiledTrajectory.OMEGA]
+              + AutoConstants.ROTATION_KP * MathUtil.angleModulus(target[CompiledTrajectory.HEADING] - pose[2]);
+
+          // Field relative to robot relative.
+          double cos = Math.cos(pose[2]);
+          double sin = Math.sin(pose[2]);
+          speeds.vxMetersPerSecond = vx * cos + vy * sin;
+          speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+          speeds.omegaRadiansPerSecond = omega;
+          drive(speeds);
+        },
+        interrupted -> {
+          speeds.vxMetersPerSecond = 0.0;
+          speeds.vyMetersPerSecond = 0.0;
+          speeds.omegaRadiansPerSecond = 0.0;
+          drive(speeds);
+        },
+        () -> timer.hasElapsed(trajectory.getTotalTime()),
+        this)
+        .withName("followTrajectory(" + trajectory.getName() + ")");
   }
 
   /**
@@ -142,7 +594,51 @@ public class Swerve extends SubsystemBase {
    * }</pre>
    */
   public void lockWheels() {
-    drivebase.lockPose();
+    drivebase.odometryLock.lock();
+    try {
+      drivebase.lockPose();
+    } finally {
+      drivebase.odometryLock.unlock();
+    }
+  }
+
+  /**
+   * Drives the robot relative to itself. The drive's odometry lock is held
+   * while the modules are commanded, so the {@link OdometryThread} does not
+   * read them at the same time. Use this instead of driving
+   * {@link #getSwerveDrive()} directly.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * Swerve.getInstance().drive(new ChassisSpeeds(1.0, 0.0, 0.0));
+   * }</pre>
+   *
+   * @param speeds robot relative speeds
+   */
+  public void drive(ChassisSpeeds speeds) {
+    drivebase.odometryLock.lock();
+    try {
+      drivebase.drive(speeds);
+    } finally {
+      drivebase.odometryLock.unlock();
+    }
+  }
+
+  /**
+   * Drives the robot relative to the field, holding the odometry lock like
+   * {@link #drive(ChassisSpeeds)}.
+   *
+   * @param speeds field relative speeds
+   */
+  private void driveFieldRelative(ChassisSpeeds speeds) {
+    drivebase.odometryLock.lock();
+    try {
+      drivebase.driveFieldOriented(speeds);
+    } finally {
+      drivebase.odometryLock.unlock();
+    }
   }
 
   /**
@@ -160,6 +656,8 @@ public class Swerve extends SubsystemBase {
    * }</pre>
    */
   public void resetOdometry() {
+    odometryQueue.clear();
+    poseHistory.clear();
     drivebase.resetOdometry(
         new Pose2d(new Translation2d(Meter.of(8.774), Meter.of(4.026)), getAllianceRotation()));
   }
@@ -180,6 +678,23 @@ public class Swerve extends SubsystemBase {
     return drivebase.getPose();
   }
 
+  /**
+   * Gets the history of estimated poses, used to find where the robot was at a
+   * past timestamp. Safe to read from other threads.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * Optional<Pose2d> pose = Swerve.getInstance().getPoseHistory().getPose(captureTimestamp);
+   * }</pre>
+   *
+   * @return the pose history
+   */
+  public PoseHistory getPoseHistory() {
+    return poseHistory;
+  }
+
   /**
    * Resets the robot's odometry to a specific pose.
    *
@@ -193,9 +708,84 @@ public class Swerve extends SubsystemBase {
    * @param pose the Pose2d to set as the robot's current position and rotation
    */
   public void resetOdometry(Pose2d pose) {
+    odometryQueue.clear();
+    poseHistory.clear();
     drivebase.resetOdometry(pose);
   }
 
+  /**
+   * Adds a timestamped vision measurement to the pose estimator.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * Swerve.getInstance().addVisionMeasurement(visionPose, captureTimestamp, VecBuilder.fill(0.1, 0.1, 0.5));
+   * }</pre>
+   *
+   * @param pose      the measured robot pose
+   * @param timestamp FPGA timestamp in seconds when the image was captured
+   * @param stdDevs   standard deviations of the measurement x, y and rotation
+   */
+  public void addVisionMeasurement(Pose2d pose, double timestamp, Matrix<N3, N1> stdDevs) {
+    drivebase.addVisionMeasurement(pose, timestamp, stdDevs);
+    hasVisionPose = true;
+  }
+
+  /**
+   * Copies the module states from the latest odometry sample, without creating
+   * garbage.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * double[] speeds = new double[4];
+   * double[] angles = new double[4];
+   * Swerve.getInstance().getModuleStates(speeds, angles);
+   * }</pre>
+   *
+   * @param speeds array receiving each module's speed in meters per second
+   * @param angles array receiving each module's angle in radians
+   */
+  public void getModuleStates(double[] speeds, double[] angles) {
+    System.arraycopy(odometrySample.velocity, 0, speeds, 0, odometrySample.velocity.length);
+    System.arraycopy(odometrySample.angle, 0, angles, 0, odometrySample.angle.length);
+  }
+
+  /**
+   * Computes the robot relative velocity from the latest odometry sample,
+   * without creating garbage.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * double[] velocity = new double[3];
+   * Swerve.getInstance().getRobotVelocity(velocity);
+   * }</pre>
+   *
+   * @param out array receiving vx and vy in meters per second and omega in
+   *            radians per second
+   */
+  public void getRobotVelocity(double[] out) {
+    double vx = 0.0;
+    double vy = 0.0;
+    double omega = 0.0;
+    for (int i = 0; i < odometrySample.velocity.length; i++) {
+      double speed = odometrySample.velocity[i];
+      double angle = odometrySample.angle[i];
+      double moduleX = speed * Math.cos(angle);
+      double moduleY = speed * Math.sin(angle);
+      vx += forwardKinematics[0][i * 2] * moduleX + forwardKinematics[0][i * 2 + 1] * moduleY;
+      vy += forwardKinematics[1][i * 2] * moduleX + forwardKinematics[1][i * 2 + 1] * moduleY;
+      omega += forwardKinematics[2][i * 2] * moduleX + forwardKinematics[2][i * 2 + 1] * moduleY;
+    }
+    out[0] = vx;
+    out[1] = vy;
+    out[2] = omega;
+  }
+
   /**
    * Gets the current velocity of the robot.
    *
@@ -209,11 +799,18 @@ public class Swerve extends SubsystemBase {
    * @return the ChassisSpeeds representing the robot's current velocity
    */
   public ChassisSpeeds getRobotVelocity() {
-    return drivebase.getRobotVelocity();
+    drivebase.odometryLock.lock();
+    try {
+      return drivebase.getRobotVelocity();
+    } finally {
+      drivebase.odometryLock.unlock();
+    }
   }
 
   /**
-   * Gets the underlying SwerveDrive object.
+   * Gets the underlying SwerveDrive object. Hold its {@code odometryLock} while
+   * reading or commanding the modules, the {@link OdometryThread} reads them
+   * from its own thread.
    *
    * <p>
    * Example:
@@ -249,8 +846,11 @@ public class Swerve extends SubsystemBase {
    * AprilTag system.
    */
   @Override
-  public void periodic() {
-    if (!Robot.getInstance().hasLeftDisabled()) {
+  protected void profiledPeriodic() {
+    updateOdometry();
+    synchronizeModuleEncoders();
+
+    if (!Robot.getInstance().hasLeftDisabled() && !hasVisionPose) {
       resetOdometry();
     }
   }
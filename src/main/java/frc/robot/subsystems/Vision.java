@@ -0,0 +1,298 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.Constants.FieldConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.helpers.DoubleRecordQueue;
+import frc.robot.helpers.MatchState;
+import frc.robot.helpers.PoseHistory;
+import frc.robot.helpers.ProfiledSubsystem;
+import frc.robot.helpers.SimulationClock;
+import java.util.Optional;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.VisionSystemSim;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * AprilTag pose estimation with PhotonVision. Camera results are pulled,
+ * solved and filtered on a background {@link Notifier} thread, and only the
+ * finished, timestamped measurements are handed to the main loop through a
+ * lock-free {@link DoubleRecordQueue}. {@link #periodic()} then adds them to
+ * the {@link Swerve} pose estimator, so camera processing never adds time to
+ * the main loop.
+ *
+ * <p>
+ * In simulation a {@link VisionSystemSim} renders the field tags from the
+ * true pose of the physics simulation, so the whole pipeline runs on a
+ * desktop. The results are then processed by the {@link SimulationClock}
+ * before every loop rather than on the vision thread. On the real robot vision stays off until the camera transform in
+ * {@link VisionConstants} is measured.
+ */
+public class Vision extends ProfiledSubsystem {
+  private static Vision instance;
+
+  /**
+   * Gets the singleton instance of the Vision subsystem.
+   *
+   * @return The singleton instance.
+   */
+  public static Vision getInstance() {
+    if (instance == null) {
+      instance = new Vision();
+    }
+    return instance;
+  }
+
+  /** Field layout loaded by {@link #prepare()}, taken by the constructor. */
+  private static volatile AprilTagFieldLayout preparedFieldLayout;
+
+  /**
+   * Load the AprilTag field layout ahead of the constructor, so the JSON is
+   * parsed on a startup thread while the devices are configured.
+   *
+   * <p>
+   * Example:
+   *
+   * <pre>{@code
+   * startup.phase("FieldLayout", Vision::prepare);
+   * }</pre>
+   */
+  public static void prepare() {
+    preparedFieldLayout = loadFieldLayout();
+  }
+
+  /**
+   * Load the AprilTag field layout of this season.
+   *
+   * @return The field layout.
+   */
+  private static AprilTagFieldLayout loadFieldLayout() {
+    return AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+  }
+
+  /** Record index of the X position in meters. */
+  private static final int X = 0;
+  /** Record index of the Y position in meters. */
+  private static final int Y = 1;
+  /** Record index of the rotation in radians. */
+  private static final int THETA = 2;
+  /** Record index of the FPGA timestamp in seconds. */
+  private static final int TIMESTAMP = 3;
+  /** Record index of the translation standard deviation in meters. */
+  private static final int XY_STD_DEV = 4;
+  /** Record index of the rotation standard deviation in radians. */
+  private static final int THETA_STD_DEV = 5;
+  /** Number of doubles in a measurement record. */
+  private static final int RECORD_WIDTH = 6;
+
+  /** Rotation standard deviation used when the rotation should be ignored. */
+  private static final double IGNORED_STD_DEV = 1.0e6;
+
+  private final Swerve swerve = Swerve.getInstance();
+  private final PoseHistory poseHistory = swerve.getPoseHistory();
+
+  private final AprilTagFieldLayout fieldLayout;
+  private final PhotonCamera camera;
+  private final PhotonPoseEstimator poseEstimator;
+
+  /** Measurements waiting for the main loop. */
+  private final DoubleRecordQueue measurements;
+
+  /** Thread processing camera results. */
+  private final Notifier notifier;
+
+  /** Record being built on the vision thread. */
+  private final double[] producerRecord = new double[RECORD_WIDTH];
+
+  /** Record being read on the main loop. */
+  private final double[] consumerRecord = new double[RECORD_WIDTH];
+
+  /** Odometry pose at a measurement timestamp, used on the vision thread. */
+  private final double[] referencePose = new double[3];
+
+  /** Reused standard deviations passed to the pose estimator. */
+  private final Matrix<N3, N1> stdDevs = VecBuilder.fill(0.0, 0.0, 0.0);
+
+  /** Reject estimates far from odometry, only while enabled. */
+  private volatile boolean rejectPoseJumps = false;
+
+  /** Measurements accepted by the vision thread. */
+  private volatile long acceptedCount = 0;
+
+  /** Estimates rejected by the vision thread. */
+  private volatile long rejectedCount = 0;
+
+  private final IntegerPublisher acceptedPublisher;
+  private final IntegerPublisher rejectedPublisher;
+  private final IntegerPublisher droppedPublisher;
+
+  /** Simulated camera system, null on the real robot. */
+  private VisionSystemSim visionSim = null;
+
+  private Vision() {
+    fieldLayout = preparedFieldLayout != null ? preparedFieldLayout : loadFieldLayout();
+    preparedFieldLayout = null;
+    camera = new PhotonCamera(VisionConstants.CAMERA_NAME);
+    poseEstimator = new PhotonPoseEstimator(
+        fieldLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, VisionConstants.ROBOT_TO_CAMERA);
+    poseEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+    measurements = new DoubleRecordQueue(VisionConstants.QUEUE_CAPACITY, RECORD_WIDTH);
+
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Robot").getSubTable("Vision");
+    acceptedPublisher = table.getIntegerTopic("Accepted").publish();
+    rejectedPublisher = table.getIntegerTopic("Rejected").publish();
+    droppedPublisher = table.getIntegerTopic("Dropped").publish();
+
+    notifier = new Notifier(this::processResults);
+    notifier.setName("Vision");
+
+    if (RobotBase.isSimulation()) {
+      visionSim = new VisionSystemSim("main");
+      visionSim.addAprilTags(fieldLayout);
+      // PhotonVision's simulated noise cannot be seeded, leave it off.
+      SimCameraProperties properties = new SimCameraProperties();
+      properties.setCalibration(960, 720, Rotation2d.fromDegrees(90));
+      properties.setFPS(30);
+      properties.setAvgLatencyMs(35);
+      visionSim.addCamera(new PhotonCameraSim(camera, properties), VisionConstants.ROBOT_TO_CAMERA);
+      SimulationClock.getInstance().addWorldStep(this::stepSimulation);
+    } else if (!VisionConstants.ROBOT_TO_CAMERA_MEASURED) {
+      DriverStation.reportWarning("Vision is off until the camera transform is measured", false);
+    } else {
+      notifier.startPeriodic(1.0 / VisionConstants.FREQUENCY_HZ);
+    }
+  }
+
+  /**
+   * Solve and filter every unread camera result. Runs on the vision thread,
+   * or on the simulation clock in simulation.
+   */
+  private void processResults() {
+    for (PhotonPipelineResult result : camera.getAllUnreadResults()) {
+      if (!result.hasTargets()) {
+        continue;
+      }
+      Optional<EstimatedRobotPose> estimate = poseEstimator.update(result);
+      if (estimate.isEmpty()) {
+        continue;
+      }
+      if (!buildRecord(estimate.get())) {
+        rejectedCount++;
+      } else if (measurements.offer(producerRecord)) {
+        // A full queue counts the record as dropped.
+        acceptedCount++;
+      }
+    }
+  }
+
+  /**
+   * Check an estimate against the outlier filters and fill
+   * {@link #producerRecord} with it. Runs on the vision thread.
+   *
+   * @param estimate Estimate to check.
+   * @return False if the estimate was rejected.
+   */
+  private boolean buildRecord(EstimatedRobotPose estimate) {
+    Pose3d pose = estimate.estimatedPose;
+    int tagCount = estimate.targetsUsed.size();
+    if (tagCount == 0) {
+      return false;
+    }
+
+    double totalDistance = 0.0;
+    for (PhotonTrackedTarget target : estimate.targetsUsed) {
+      totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+    }
+    double averageDistance = totalDistance / tagCount;
+
+    if (tagCount == 1 && estimate.targetsUsed.get(0).getPoseAmbiguity() > VisionConstants.MAX_AMBIGUITY) {
+      return false;
+    }
+    if (averageDistance > VisionConstants.MAX_TAG_DISTANCE_METERS) {
+      return false;
+    }
+    if (Math.abs(pose.getZ()) > VisionConstants.MAX_Z_ERROR_METERS
+        || pose.getX() < 0.0 || pose.getX() > FieldConstants.FIELD_LENGTH_METERS
+        || pose.getY() < 0.0 || pose.getY() > FieldConstants.FIELD_WIDTH_METERS) {
+      return false;
+    }
+    if (rejectPoseJumps
+        && poseHistory.sample(estimate.timestampSeconds, referencePose)
+        && Math.hypot(pose.getX() - referencePose[0], pose.getY() - referencePose[1])
+            > VisionConstants.MAX_POSE_JUMP_METERS) {
+      return false;
+    }
+
+    double distanceSquared = averageDistance * averageDistance;
+    producerRecord[X] = pose.getX();
+    producerRecord[Y] = pose.getY();
+    producerRecord[THETA] = pose.getRotation().getZ();
+    producerRecord[TIMESTAMP] = estimate.timestampSeconds;
+    if (tagCount > 1) {
+      producerRecord[XY_STD_DEV] = VisionConstants.MULTI_TAG_XY_STD_DEV * distanceSquared / tagCount;
+      producerRecord[THETA_STD_DEV] = VisionConstants.MULTI_TAG_THETA_STD_DEV * distanceSquared / tagCount;
+    } else {
+      // A single tag gives a poor heading, trust the gyro instead.
+      producerRecord[XY_STD_DEV] = VisionConstants.SINGLE_TAG_XY_STD_DEV * distanceSquared;
+      producerRecord[THETA_STD_DEV] = IGNORED_STD_DEV;
+    }
+    return true;
+  }
+
+  /**
+   * Hands the measurements finished since the last loop to the pose estimator.
+   */
+  @Override
+  protected void profiledPeriodic() {
+    rejectPoseJumps = MatchState.getInstance().isEnabled();
+
+    while (measurements.poll(consumerRecord)) {
+      stdDevs.set(0, 0, consumerRecord[XY_STD_DEV]);
+      stdDevs.set(1, 0, consumerRecord[XY_STD_DEV]);
+      stdDevs.set(2, 0, consumerRecord[THETA_STD_DEV]);
+      swerve.addVisionMeasurement(
+          new Pose2d(consumerRecord[X], consumerRecord[Y], new Rotation2d(consumerRecord[THETA])),
+          consumerRecord[TIMESTAMP],
+          stdDevs);
+    }
+
+    acceptedPublisher.set(acceptedCount);
+    rejectedPublisher.set(rejectedCount);
+    droppedPublisher.set(measurements.getDroppedCount());
+  }
+
+  /**
+   * Render the simulated camera from the true robot pose of the physics
+   * simulation, so odometry errors show up against the tags as they would on
+   * the field, and process the results. Run by the {@link SimulationClock}
+   * before every loop instead of the vision thread, so the measurements of a
+   * run do not depend on thread timing.
+   */
+  private void stepSimulation() {
+    Optional<Pose2d> truePose = swerve.getSwerveDrive().getSimulationDriveTrainPose();
+    if (truePose.isPresent()) {
+      visionSim.update(truePose.get());
+    }
+    processResults();
+  }
+}
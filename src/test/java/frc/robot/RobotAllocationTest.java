@@ -0,0 +1,186 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.management.ThreadMXBean;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.Constants.OIConstants;
+import frc.robot.commands.AutoCommands;
+import frc.robot.helpers.JitWarmup;
+import frc.robot.helpers.SimulationClock;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Runs the robot in the desktop simulation and checks the bytes allocated per
+ * cycle in each mode against a budget, so a change that brings back per-loop
+ * garbage in the drive input, the swerve or the subsystems fails the build.
+ * The robot loop is stepped by hand on the test thread with simulated time
+ * paused, like the {@link SimulationClock} does. Only the robot loop is
+ * counted, not the physics and the simulated sensors stepped before it, nor
+ * the background threads.
+ *
+ * <p>
+ * The tests share the robot and run in match order, each starting from the
+ * mode the previous one left.
+ *
+ * <p>
+ * The budgets cover what WPILib itself allocates every cycle, the watchdog
+ * epochs, the subsystem names of the scheduler and the pose estimator update
+ * of each odometry sample, and the YAGSL module state math when driving. The
+ * simulation takes one odometry sample per cycle, the robot five, so the pose
+ * estimator garbage on the robot is five times what is measured here. The failure message prints the measured average, set a
+ * budget to it plus a quarter when it changes.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RobotAllocationTest {
+  /** Largest average allocation of a disabled cycle, in bytes. */
+  private static final long DISABLED_BUDGET_BYTES = 3072;
+
+  /** Largest average allocation of an autonomous cycle, in bytes. */
+  private static final long AUTONOMOUS_BUDGET_BYTES = 6144;
+
+  /** Largest average allocation of a teleop cycle, in bytes. */
+  private static final long TELEOP_BUDGET_BYTES = 6144;
+
+  /** Most disabled cycles waiting for the JIT warm-up to finish, 2 minutes. */
+  private static final int MAX_WARMUP_CYCLES = 6000;
+
+  /** Cycles run after a mode change before measuring. */
+  private static final int SETTLE_CYCLES = 10;
+
+  /** Cycles measured in disabled and teleop. */
+  private static final int MEASURE_CYCLES = 500;
+
+  /** Cycles measured in autonomous, within the 3 seconds of the routine. */
+  private static final int AUTONOMOUS_CYCLES = 120;
+
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static Robot robot;
+  private static XboxControllerSim driver;
+
+  /** Cycles run so far, the phase of the scripted sticks. */
+  private static long cycles = 0;
+
+  @BeforeAll
+  static void startRobot() {
+    assertTrue(HAL.initialize(500, 0));
+    SimHooks.pauseTiming();
+    setMode(false, false);
+    driver = new XboxControllerSim(OIConstants.DRIVER_CONTROLLER_PORT);
+    robot = Robot.getInstance();
+
+    // Measure compiled code, as on the field after the warm-up.
+    for (int i = 0; i < MAX_WARMUP_CYCLES && !JitWarmup.getInstance().isFinished(); i++) {
+      cycle();
+    }
+  }
+
+  @AfterAll
+  static void resumeTiming() {
+    setMode(false, false);
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  @Order(1)
+  void disabledCycleStaysInBudget() {
+    setMode(false, false);
+    settle();
+    assertWithinBudget("disabled", measureCycles(MEASURE_CYCLES), DISABLED_BUDGET_BYTES);
+  }
+
+  @Test
+  @Order(2)
+  void autonomousCycleStaysInBudget() {
+    setMode(true, true);
+    cycle();
+    AutoCommands.simpleBackwardDrive().schedule();
+    settle();
+    assertWithinBudget("autonomous", measureCycles(AUTONOMOUS_CYCLES), AUTONOMOUS_BUDGET_BYTES);
+  }
+
+  @Test
+  @Order(3)
+  void teleopCycleStaysInBudget() {
+    setMode(true, false);
+    settle();
+    assertWithinBudget("teleop", measureCycles(MEASURE_CYCLES), TELEOP_BUDGET_BYTES);
+  }
+
+  /**
+   * Set the simulated driver station mode.
+   *
+   * @param enabled    Whether the robot is enabled.
+   * @param autonomous Whether the robot is in autonomous.
+   */
+  private static void setMode(boolean enabled, boolean autonomous) {
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.notifyNewData();
+  }
+
+  /** Run the cycles after a mode change. */
+  private static void settle() {
+    for (int i = 0; i < SETTLE_CYCLES; i++) {
+      cycle();
+    }
+  }
+
+  /**
+   * Run one robot cycle, 20 ms of simulated time, with the scripted sticks.
+   *
+   * @return Bytes allocated by the robot code in the cycle.
+   */
+  private static long cycle() {
+    double phase = cycles++ * 0.02;
+    driver.setLeftX(0.8 * Math.sin(phase));
+    driver.setLeftY(0.8 * Math.cos(phase * 0.7));
+    driver.setRightX(Math.cos(phase * 0.3));
+    driver.setRightY(Math.sin(phase * 0.3));
+    DriverStationSim.notifyNewData();
+    SimulationClock.getInstance().stepWorld();
+    SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+
+    long before = THREADS.getCurrentThreadAllocatedBytes();
+    robot.loopFunc();
+    return THREADS.getCurrentThreadAllocatedBytes() - before;
+  }
+
+  /**
+   * Measure the average allocation of robot cycles.
+   *
+   * @param count Number of cycles.
+   * @return Average bytes per cycle.
+   */
+  private static double measureCycles(int count) {
+    long total = 0;
+    for (int i = 0; i < count; i++) {
+      total += cycle();
+    }
+    return (double) total / count;
+  }
+
+  /**
+   * Fail when a mode allocated more than its budget.
+   *
+   * @param mode         Mode measured.
+   * @param averageBytes Average bytes per cycle.
+   * @param budgetBytes  Budget in bytes per cycle.
+   */
+  private static void assertWithinBudget(String mode, double averageBytes, long budgetBytes) {
+    assertTrue(averageBytes <= budgetBytes, () -> String.format(
+        "%s allocates %.1f B/cycle, budget %d B/cycle", mode, averageBytes, budgetBytes));
+  }
+}
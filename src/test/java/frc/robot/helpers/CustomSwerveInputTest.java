@@ -0,0 +1,85 @@
+package frc.robot.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.management.ThreadMXBean;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.Constants.OIConstants;
+import frc.robot.subsystems.Swerve;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Checks that the driver's input stream allocates nothing per call. */
+class CustomSwerveInputTest {
+  /** Calls run before measuring, so the stream is compiled. */
+  private static final int WARMUP_CALLS = 20000;
+
+  /** Calls measured. */
+  private static final int MEASURE_CALLS = 10000;
+
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** Left X, left Y, right X and right Y of the simulated driver sticks. */
+  private final double[] axes = new double[4];
+
+  @BeforeAll
+  static void startSimulation() {
+    assertTrue(HAL.initialize(500, 0));
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  @Test
+  void driverStreamDoesNotAllocate() {
+    // Configured like the driver's stream in RobotContainer.
+    CustomSwerveInput input = CustomSwerveInput.of(
+        Swerve.getInstance().getSwerveDrive(), () -> axes[1] * -1, () -> axes[0] * -1)
+        .cubeTranslationControllerAxis(true)
+        .scaleTranslation(0.75)
+        .scaleTranslation(() -> axes[0] > 0.5, 0.5)
+        .withControllerHeadingAxis(() -> axes[2] * -1, () -> axes[3] * -1)
+        .cubeRotationControllerAxis(true)
+        .deadband(OIConstants.DRIVER_DEADBAND)
+        .allianceRelativeControl(true)
+        .headingWhile(true)
+        .freeze();
+    ChassisSpeeds output = new ChassisSpeeds();
+
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      setAxes(i);
+      input.get(output);
+    }
+
+    long total = 0;
+    long largest = 0;
+    for (int i = 0; i < MEASURE_CALLS; i++) {
+      setAxes(i);
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      input.get(output);
+      long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+      total += allocated;
+      largest = Math.max(largest, allocated);
+    }
+
+    assertEquals(0, largest, "most bytes allocated by one call");
+    assertEquals(0, total, "bytes allocated by " + MEASURE_CALLS + " calls");
+  }
+
+  /**
+   * Move the simulated sticks through the deadband, the scaled range and full
+   * deflection.
+   *
+   * @param call Index of the call.
+   */
+  private void setAxes(int call) {
+    double phase = call * 0.01;
+    axes[0] = Math.sin(phase);
+    axes[1] = Math.cos(phase * 0.7);
+    axes[2] = Math.cos(phase * 0.5);
+    axes[3] = Math.sin(phase * 0.5);
+  }
+}
@@ -0,0 +1,93 @@
+package frc.robot.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.management.ThreadMXBean;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.Constants.FieldConstants;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+/** Checks the align target lookup of {@link ScoringPoseIndex}. */
+class ScoringPoseIndexTest {
+  /** Spacing of the points swept over the field, in meters. */
+  private static final double STEP_METERS = 0.1;
+
+  /** Calls run before measuring, so the lookup is compiled. */
+  private static final int WARMUP_CALLS = 20000;
+
+  /** Calls measured. */
+  private static final int MEASURE_CALLS = 10000;
+
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private final ScoringPoseIndex index = ScoringPoseIndex.getInstance();
+
+  @Test
+  void nearestMatchesEveryPoseCompared() {
+    for (double x = 0.0; x <= FieldConstants.FIELD_LENGTH_METERS; x += STEP_METERS) {
+      for (double y = 0.0; y <= FieldConstants.FIELD_WIDTH_METERS; y += STEP_METERS) {
+        for (boolean red : new boolean[] { false, true }) {
+          assertEquals(bruteForceDistance(x, y, red), distance(index.nearest(x, y, red), x, y, red), 1e-9,
+              "nearest pose to (" + x + ", " + y + ")");
+        }
+      }
+    }
+  }
+
+  @Test
+  void nearestDoesNotAllocate() {
+    int sink = 0;
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      sink += lookup(i);
+    }
+
+    long before = THREADS.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < MEASURE_CALLS; i++) {
+      sink += lookup(i);
+    }
+    long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+    assertEquals(0, allocated, "bytes allocated by " + MEASURE_CALLS + " lookups (" + sink + ")");
+  }
+
+  /**
+   * Look up a point of a sweep over the field, alternating the alliances.
+   *
+   * @param call Index of the call.
+   * @return Index of the nearest pose.
+   */
+  private int lookup(int call) {
+    return index.nearest((call % 176) * STEP_METERS, (call % 81) * STEP_METERS, (call & 1) == 0);
+  }
+
+  /**
+   * Distance from a point to the nearest pose, comparing every pose.
+   *
+   * @param x   X in meters.
+   * @param y   Y in meters.
+   * @param red Whether to compare the red alliance's poses.
+   * @return The distance in meters.
+   */
+  private double bruteForceDistance(double x, double y, boolean red) {
+    double best = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < index.getPoseCount(); i++) {
+      best = Math.min(best, distance(i, x, y, red));
+    }
+    return best;
+  }
+
+  /**
+   * Distance from a point to a pose.
+   *
+   * @param pose Index of the pose.
+   * @param x    X in meters.
+   * @param y    Y in meters.
+   * @param red  Whether to use the red alliance's pose.
+   * @return The distance in meters.
+   */
+  private double distance(int pose, double x, double y, boolean red) {
+    Pose2d target = index.getPose(pose, red);
+    return Math.hypot(target.getX() - x, target.getY() - y);
+  }
+}
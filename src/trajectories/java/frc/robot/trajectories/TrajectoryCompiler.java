@@ -0,0 +1,147 @@
+package frc.robot.trajectories;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Generates the autonomous trajectories at build time and writes them in the
+ * binary format read by {@code frc.robot.commands.CompiledTrajectory}. Run by
+ * the {@code generateTrajectories} Gradle task before the robot code compiles.
+ *
+ * <p>
+ * Paths are defined for the blue alliance. The translation follows a WPILib
+ * spline trajectory, and the holonomic heading turns from the start to the end
+ * heading with a smooth profile over the whole path.
+ */
+public final class TrajectoryCompiler {
+  /** File magic, "TRAJ" read as a little endian int. */
+  private static final int MAGIC = 0x4A415254;
+
+  /** Format version, changed with any layout change. */
+  private static final int VERSION = 1;
+
+  /** Header size in bytes. */
+  private static final int HEADER_BYTES = 32;
+
+  /** Doubles per sample: x, y, heading, vx, vy and omega. */
+  private static final int SAMPLE_DOUBLES = 6;
+
+  /** Time between samples in seconds. */
+  private static final double SAMPLE_PERIOD = 0.01;
+
+  /** A path to generate. */
+  private record Path(
+      String name,
+      List<Pose2d> waypoints,
+      Rotation2d startHeading,
+      Rotation2d endHeading,
+      double maxVelocity,
+      double maxAcceleration) {
+  }
+
+  /** Every path, the rotation of a waypoint being the direction of travel. */
+  private static final List<Path> PATHS = List.of(
+      // The trajectory version of AutoCommands.simpleBackwardDrive(), 3 m back
+      // from the pose seeded at the center of the field.
+      new Path(
+          "BackwardDrive",
+          List.of(
+              new Pose2d(8.774, 4.026, Rotation2d.k180deg),
+              new Pose2d(5.774, 4.026, Rotation2d.k180deg)),
+          Rotation2d.kZero,
+          Rotation2d.kZero,
+          1.0,
+          1.0),
+      // From the center of the field to the front face of the reef, turning
+      // to face it on the way.
+      new Path(
+          "ReefApproach",
+          List.of(
+              new Pose2d(8.774, 4.026, Rotation2d.k180deg),
+              new Pose2d(7.2, 5.2, Rotation2d.fromDegrees(180)),
+              new Pose2d(5.9, 4.026, Rotation2d.fromDegrees(-120))),
+          Rotation2d.kZero,
+          Rotation2d.k180deg,
+          3.0,
+          2.5));
+
+  private TrajectoryCompiler() {
+  }
+
+  /**
+   * Generate every path into a directory.
+   *
+   * @param args The output directory.
+   * @throws IOException if a file cannot be written.
+   */
+  public static void main(String... args) throws IOException {
+    File directory = new File(args[0]);
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    for (Path path : PATHS) {
+      File file = new File(directory, path.name() + ".traj");
+      byte[] bytes = compile(path);
+      try (FileOutputStream output = new FileOutputStream(file)) {
+        output.write(bytes);
+      }
+      System.out.printf("%s: %d bytes%n", file, bytes.length);
+    }
+  }
+
+  /**
+   * Generate a path and encode it.
+   *
+   * @param path Path to generate.
+   * @return The encoded trajectory.
+   */
+  private static byte[] compile(Path path) {
+    Trajectory trajectory = TrajectoryGenerator.generateTrajectory(
+        path.waypoints(), new TrajectoryConfig(path.maxVelocity(), path.maxAcceleration()));
+    double totalTime = trajectory.getTotalTimeSeconds();
+    int sampleCount = (int) Math.ceil(totalTime / SAMPLE_PERIOD) + 1;
+    double headingChange = MathUtil.angleModulus(
+        path.endHeading().getRadians() - path.startHeading().getRadians());
+
+    ByteBuffer buffer = ByteBuffer
+        .allocate(HEADER_BYTES + sampleCount * SAMPLE_DOUBLES * Double.BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putInt(sampleCount);
+    buffer.putInt(0);
+    buffer.putDouble(SAMPLE_PERIOD);
+    buffer.putDouble(totalTime);
+
+    for (int i = 0; i < sampleCount; i++) {
+      double time = Math.min(i * SAMPLE_PERIOD, totalTime);
+      Trajectory.State state = trajectory.sample(time);
+      double travel = state.poseMeters.getRotation().getRadians();
+
+      // Smoothstep from the start to the end heading, with zero turn rate at
+      // both ends.
+      double progress = totalTime > 0.0 ? time / totalTime : 1.0;
+      double heading = path.startHeading().getRadians()
+          + headingChange * progress * progress * (3.0 - 2.0 * progress);
+      double omega = totalTime > 0.0 ? headingChange * 6.0 * progress * (1.0 - progress) / totalTime : 0.0;
+
+      buffer.putDouble(state.poseMeters.getX());
+      buffer.putDouble(state.poseMeters.getY());
+      buffer.putDouble(MathUtil.angleModulus(heading));
+      buffer.putDouble(state.velocityMetersPerSecond * Math.cos(travel));
+      buffer.putDouble(state.velocityMetersPerSecond * Math.sin(travel));
+      buffer.putDouble(omega);
+    }
+    return buffer.array();
+  }
+}